@@ -0,0 +1,41 @@
+/**
+ * @format
+ */
+
+import {Platform, TurboModuleRegistry} from 'react-native';
+
+// Note: import explicitly to use the types shiped with jest.
+import {expect, it, jest} from '@jest/globals';
+
+jest.mock('react-native-push-notification', () => ({
+  configure: jest.fn(),
+  createChannel: jest.fn(),
+  localNotificationSchedule: jest.fn(),
+  cancelLocalNotification: jest.fn(),
+}));
+jest.mock('react-native-permissions', () => ({
+  PERMISSIONS: {ANDROID: {}, IOS: {}},
+  RESULTS: {GRANTED: 'granted'},
+  check: jest.fn(),
+  request: jest.fn(),
+}));
+// Keeps the database and its SQLite module out of the test
+jest.mock('../src/services/commute', () => ({getWeatherIcon: () => ''}));
+
+// Resolving the module is what constructs it natively, so startup must not resolve it
+it('resolves the alarm module on first use only', () => {
+  (Platform as {OS: string}).OS = 'android';
+  const getModule = jest
+    .spyOn(TurboModuleRegistry, 'get')
+    .mockImplementation(name => (name === 'AlarmManager' ? {getNextTriggerTime: () => 1234} : null) as any);
+
+  const {initNotifications, ensureDefaultChannel} = require('../src/services/notify');
+  const {commuteAlarmManager} = require('../src/services/alarmManager');
+  initNotifications();
+  ensureDefaultChannel();
+  expect(getModule).not.toHaveBeenCalledWith('AlarmManager');
+
+  expect(commuteAlarmManager.getNextNativeTriggerTime()).toBe(1234);
+  expect(commuteAlarmManager.getNextNativeTriggerTime()).toBe(1234);
+  expect(getModule.mock.calls.filter(([name]) => name === 'AlarmManager')).toHaveLength(1);
+});
@@ -1,25 +1,41 @@
 package com.commutetimely;
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
-import android.content.Context;
-import android.content.Intent;
-import android.os.Build;
-
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 import androidx.annotation.NonNull;
 
-public class AlarmManagerModule extends ReactContextBaseJavaModule {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class AlarmManagerModule extends ReactContextBaseJavaModule implements ExactAlarmPermission.Listener {
     private static final String MODULE_NAME = "AlarmManager";
+    static final String EVENT_EXACT_ALARM_PERMISSION_CHANGED = "exactAlarmPermissionChanged";
+
     private final ReactApplicationContext reactContext;
+    private final AlarmRegistry registry;
+    private final AlarmScheduler scheduler;
+    private final AlarmModuleExecutor executor;
 
     public AlarmManagerModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.reactContext = reactContext;
+        this.registry = AlarmRegistry.getInstance(reactContext);
+        this.scheduler = AlarmScheduler.getInstance(reactContext);
+        this.executor = AlarmModuleExecutor.getInstance();
+        // Shows up in the startup report only if JS actually used the module
+        StartupTrace.mark("AlarmManager.created");
     }
 
     @NonNull
@@ -28,20 +44,52 @@ public class AlarmManagerModule extends ReactContextBaseJavaModule {
         return MODULE_NAME;
     }
 
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("exactAlarmsAllowed", scheduler.canScheduleExact());
+        constants.put("EXACT_ALARM_PERMISSION_CHANGED", EVENT_EXACT_ALARM_PERMISSION_CHANGED);
+        return constants;
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        ExactAlarmPermission.addListener(this);
+    }
+
+    @Override
+    public void invalidate() {
+        ExactAlarmPermission.removeListener(this);
+        super.invalidate();
+    }
+
+    @Override
+    public void onExactAlarmPermissionChanged(boolean granted) {
+        if (!reactContext.hasActiveReactInstance()) {
+            return;
+        }
+        WritableMap event = Arguments.createMap();
+        event.putBoolean("granted", granted);
+        reactContext
+            .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+            .emit(EVENT_EXACT_ALARM_PERMISSION_CHANGED, event);
+    }
+
+    // Required by NativeEventEmitter; events are emitted regardless of listener count
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
     @ReactMethod
     public void canScheduleExactAlarms(Promise promise) {
+        // Served from the cached permission state, so no need to queue it
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                AlarmManager alarmManager = (AlarmManager) reactContext.getSystemService(Context.ALARM_SERVICE);
-                if (alarmManager != null) {
-                    promise.resolve(alarmManager.canScheduleExactAlarms());
-                } else {
-                    promise.resolve(false);
-                }
-            } else {
-                // For Android versions below 12, exact alarms are allowed by default
-                promise.resolve(true);
-            }
+            promise.resolve(scheduler.canScheduleExact());
         } catch (Exception e) {
             promise.reject("ERROR", "Failed to check exact alarm permission", e);
         }
@@ -49,108 +97,531 @@ public class AlarmManagerModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void scheduleExactAlarm(String alarmId, double triggerTime, String title, String message, Promise promise) {
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                AlarmManager alarmManager = (AlarmManager) reactContext.getSystemService(Context.ALARM_SERVICE);
-                if (alarmManager == null) {
+        enqueue(promise, () -> {
+            try {
+                if (!scheduler.canScheduleExact()) {
                     promise.resolve(false);
                     return;
                 }
 
-                if (!alarmManager.canScheduleExactAlarms()) {
-                    promise.resolve(false);
+                scheduler.schedule(alarmId, (long) triggerTime, title, message);
+                promise.resolve(true);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to schedule exact alarm", e);
+            }
+        });
+    }
+
+    // Arms an alarm that repeats on the given days (0 = Sunday, as JS getDay()) at a local
+    // HH:MM. The receiver re-arms each next occurrence itself, so JS doesn't need to run
+    // to keep it going. Resolves with the first trigger time, or -1 if it couldn't be armed.
+    @ReactMethod
+    public void scheduleRecurringAlarm(
+        String alarmId,
+        ReadableArray daysOfWeek,
+        String time,
+        String title,
+        String message,
+        Promise promise
+    ) {
+        enqueue(promise, () -> {
+            try {
+                if (!scheduler.canScheduleExact()) {
+                    promise.resolve(-1.0);
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                AlarmRecord record = readRecurringAlarm(alarmId, daysOfWeek, time, title, message, now);
+                if (record == null) {
+                    promise.resolve(-1.0);
                     return;
                 }
+
+                scheduler.schedule(record);
+                promise.resolve((double) record.triggerTime);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to schedule recurring alarm", e);
             }
+        });
+    }
+
+    // Schedules a whole set of alarms in one bridge call. Each entry is a map with
+    // id, triggerTime, title, message and an optional recurrence ({daysOfWeek, time});
+    // resolves with a map of id -> scheduled.
+    @ReactMethod
+    public void scheduleExactAlarms(ReadableArray alarms, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                // The permission can't change mid-call, so check it once for the batch
+                boolean canSchedule = scheduler.canScheduleExact();
 
-            Context context = reactContext.getApplicationContext();
-            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-            
-            if (alarmManager == null) {
-                promise.resolve(false);
-                return;
-            }
-
-            // Create intent for the alarm receiver
-            Intent intent = new Intent(context, AlarmReceiver.class);
-            intent.putExtra("alarmId", alarmId);
-            intent.putExtra("title", title);
-            intent.putExtra("message", message);
-            intent.setAction("com.commutetimely.COMMUTE_ALARM_" + alarmId);
-
-            // Create pending intent
-            int requestCode = alarmId.hashCode();
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                requestCode,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            long triggerTimeMillis = (long) triggerTime;
-
-            // Schedule the exact alarm
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                    // Android 12+ - use setExactAndAllowWhileIdle with exact permission
-                    alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTimeMillis,
-                        pendingIntent
-                    );
-                } else {
-                    // Android 6-11 - use setExactAndAllowWhileIdle
-                    alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTimeMillis,
-                        pendingIntent
-                    );
+                WritableMap results = Arguments.createMap();
+                for (int i = 0; i < alarms.size(); i++) {
+                    ReadableMap alarm = alarms.getMap(i);
+                    String alarmId = alarm.getString("id");
+                    if (!canSchedule) {
+                        results.putBoolean(alarmId, false);
+                        continue;
+                    }
+
+                    try {
+                        scheduler.schedule(readAlarm(alarm, System.currentTimeMillis()));
+                        results.putBoolean(alarmId, true);
+                    } catch (Exception e) {
+                        results.putBoolean(alarmId, false);
+                    }
+                }
+
+                promise.resolve(results);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to schedule exact alarms", e);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void cancelAlarm(String alarmId, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                if (!scheduler.isAvailable()) {
+                    promise.resolve(null);
+                    return;
+                }
+
+                scheduler.cancel(alarmId);
+                promise.resolve(null);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to cancel alarm", e);
+            }
+        });
+    }
+
+    // Cancels a set of alarm ids in one bridge call; resolves with a map of id -> cancelled.
+    @ReactMethod
+    public void cancelAlarms(ReadableArray alarmIds, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                boolean available = scheduler.isAvailable();
+
+                WritableMap results = Arguments.createMap();
+                for (int i = 0; i < alarmIds.size(); i++) {
+                    String alarmId = alarmIds.getString(i);
+                    if (!available) {
+                        results.putBoolean(alarmId, false);
+                        continue;
+                    }
+
+                    try {
+                        scheduler.cancel(alarmId);
+                        results.putBoolean(alarmId, true);
+                    } catch (Exception e) {
+                        results.putBoolean(alarmId, false);
+                    }
                 }
-            } else {
-                // Android 5 and below - use setExact
-                alarmManager.setExact(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerTimeMillis,
-                    pendingIntent
-                );
+
+                promise.resolve(results);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to cancel alarms", e);
             }
+        });
+    }
 
-            promise.resolve(true);
+    // Takes the full desired set of alarms (same shape as scheduleExactAlarms) and applies
+    // only the inserts, moves and deletes needed to match it. Resolves with the counts.
+    @ReactMethod
+    public void reconcileAlarms(ReadableArray desiredAlarms, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                if (!scheduler.canScheduleExact()) {
+                    promise.reject("EXACT_ALARM_DENIED", "Exact alarms are not permitted");
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                List<AlarmRecord> desired = new ArrayList<>(desiredAlarms.size());
+                for (int i = 0; i < desiredAlarms.size(); i++) {
+                    desired.add(readAlarm(desiredAlarms.getMap(i), now));
+                }
+
+                AlarmScheduler.ReconcileResult result = scheduler.reconcile(desired);
+                WritableMap map = Arguments.createMap();
+                map.putInt("inserted", result.inserted);
+                map.putInt("moved", result.moved);
+                map.putInt("updated", result.updated);
+                map.putInt("deleted", result.deleted);
+                map.putInt("unchanged", result.unchanged);
+                map.putInt("systemCalls", result.systemCalls);
+                map.putInt("systemCallsSaved", result.systemCallsSaved);
+                promise.resolve(map);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to reconcile alarms", e);
+            }
+        });
+    }
+
+    // Lets the JS push-notification fallback share the channels the native side creates
+    @ReactMethod
+    public void ensureNotificationChannels(Promise promise) {
+        try {
+            NotificationChannels.ensureCreated(reactContext);
+            promise.resolve(null);
         } catch (Exception e) {
-            promise.reject("ERROR", "Failed to schedule exact alarm", e);
+            promise.reject("ERROR", "Failed to create notification channels", e);
         }
     }
 
+    // Turns the ongoing departure countdown on or off; it is shown when a refresh runs
     @ReactMethod
-    public void cancelAlarm(String alarmId, Promise promise) {
-        try {
-            Context context = reactContext.getApplicationContext();
-            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-            
-            if (alarmManager == null) {
+    public void setDepartureCountdownEnabled(boolean enabled, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                DepartureCountdown.setEnabled(reactContext, enabled);
                 promise.resolve(null);
-                return;
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to update departure countdown setting", e);
             }
+        });
+    }
 
-            // Create the same intent used for scheduling
-            Intent intent = new Intent(context, AlarmReceiver.class);
-            intent.setAction("com.commutetimely.COMMUTE_ALARM_" + alarmId);
+    // Updates the countdown for a pending alarm if it is showing, e.g. after JS recalculated
+    // it. Resolves false when none is shown, nothing changed, or the update was held back
+    // by the rate limit to be posted when it ends.
+    @ReactMethod
+    public void updateDepartureCountdown(String alarmId, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                AlarmRecord record = registry.get(alarmId);
+                boolean posted = record != null
+                    && DepartureCountdown.isEnabled(reactContext)
+                    && DepartureCountdown.updateIfShown(reactContext, record);
+                promise.resolve(posted);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to update departure countdown", e);
+            }
+        });
+    }
 
-            int requestCode = alarmId.hashCode();
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                requestCode,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
+    // Keys for the native refresh path, which runs without JS and so can't read config/keys.ts
+    @ReactMethod
+    public void setRefreshApiKeys(String mapboxToken, String weatherbitKey, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                RefreshPlanStore.getInstance(reactContext).setApiKeys(mapboxToken, weatherbitKey);
+                promise.resolve(null);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to store refresh API keys", e);
+            }
+        });
+    }
 
-            // Cancel the alarm
-            alarmManager.cancel(pendingIntent);
-            pendingIntent.cancel();
+    // Turns an alarm into a two-stage alarm: leadMinutes before it fires, ETA and weather
+    // are re-fetched natively and the alarm is moved to the new leave time. The plan map
+    // has originLatitude, originLongitude, destinationLatitude, destinationLongitude,
+    // arrivalTime (HH:MM) and leadMinutes. Resolves with whether a refresh is armed now.
+    @ReactMethod
+    public void setRefreshPlan(String alarmId, ReadableMap plan, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                String[] arrival = plan.getString("arrivalTime").split(":");
+                boolean armed = scheduler.setRefreshPlan(new RefreshPlan(
+                    alarmId,
+                    plan.getDouble("originLatitude"),
+                    plan.getDouble("originLongitude"),
+                    plan.getDouble("destinationLatitude"),
+                    plan.getDouble("destinationLongitude"),
+                    Integer.parseInt(arrival[0]),
+                    Integer.parseInt(arrival[1]),
+                    plan.getInt("leadMinutes")
+                ));
+                promise.resolve(armed);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to set refresh plan", e);
+            }
+        });
+    }
 
-            promise.resolve(null);
+    @ReactMethod
+    public void clearRefreshPlan(String alarmId, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                scheduler.clearRefreshPlan(alarmId);
+                promise.resolve(null);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to clear refresh plan", e);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void setRouteGeometry(String alarmId, String geoJson, Promise promise) {
+        // Renders the thumbnail now so the alarm only has to load it when it fires
+        enqueue(promise, () -> {
+            try {
+                promise.resolve(RouteThumbnailCache.getInstance(reactContext).setRoute(alarmId, geoJson));
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to set route geometry", e);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getScheduledAlarms(Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                WritableArray alarms = Arguments.createArray();
+                for (AlarmRecord record : registry.getAll()) {
+                    alarms.pushMap(toWritableMap(record));
+                }
+                promise.resolve(alarms);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to read scheduled alarms", e);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getAlarm(String alarmId, Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                AlarmRecord record = registry.get(alarmId);
+                promise.resolve(record != null ? toWritableMap(record) : null);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to read alarm", e);
+            }
+        });
+    }
+
+    // Cheap reads that JS can call synchronously, e.g. while rendering the home screen
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean canScheduleExactAlarmsSync() {
+        return scheduler.canScheduleExact();
+    }
+
+    // Epoch millis of the next armed alarm, or -1 when none is pending
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double getNextTriggerTime() {
+        return scheduler.getNextTriggerTime();
+    }
+
+    // Leave-time math from LeaveTimeEngine; pure computation, so answered synchronously
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double calculateWeatherDelay(String condition, double precipitationProbability, double windSpeed) {
+        return LeaveTimeEngine.weatherDelaySeconds(condition, precipitationProbability, windSpeed);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double computeLeaveByTime(double arrivalTime, double etaSeconds, double weatherDelaySeconds, double bufferMinutes) {
+        return LeaveTimeEngine.leaveByTime((long) arrivalTime, (long) etaSeconds, (long) weatherDelaySeconds, (int) bufferMinutes);
+    }
+
+    // Epoch millis to leave for an HH:MM arrival, rolling over to tomorrow like commute.ts
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public double calculateLeaveTime(
+        double arrivalHour,
+        double arrivalMinute,
+        double etaSeconds,
+        String condition,
+        double precipitationProbability,
+        double windSpeed
+    ) {
+        return LeaveTimeEngine.calculateLeaveTime(
+            (int) arrivalHour,
+            (int) arrivalMinute,
+            (long) etaSeconds,
+            condition,
+            precipitationProbability,
+            windSpeed,
+            System.currentTimeMillis()
+        );
+    }
+
+    // Resolves a batch of local schedules ({time: "HH:MM", daysOfWeek?: number[]}) to the
+    // epoch millis of their next occurrence in zoneId (null for the device zone), with DST
+    // gaps and overlaps handled by TriggerCalculator. Unresolvable entries come back as -1.
+    // Pure computation, so it answers directly instead of queueing.
+    @ReactMethod
+    public void computeTriggerTimes(ReadableArray schedules, String zoneId, Promise promise) {
+        try {
+            int count = schedules.size();
+            int[] hours = new int[count];
+            int[] minutes = new int[count];
+            int[] daysMasks = new int[count];
+            for (int i = 0; i < count; i++) {
+                ReadableMap schedule = schedules.getMap(i);
+                String[] parts = schedule.getString("time").split(":");
+                hours[i] = Integer.parseInt(parts[0]);
+                minutes[i] = Integer.parseInt(parts[1]);
+                if (schedule.hasKey("daysOfWeek") && !schedule.isNull("daysOfWeek")) {
+                    ReadableArray days = schedule.getArray("daysOfWeek");
+                    int[] daysOfWeek = new int[days.size()];
+                    for (int d = 0; d < daysOfWeek.length; d++) {
+                        daysOfWeek[d] = days.getInt(d);
+                    }
+                    // An empty list, like a missing one, means any day
+                    daysMasks[i] = AlarmRecurrence.maskOf(daysOfWeek);
+                }
+            }
+
+            long[] triggers = TriggerCalculator.nextTriggers(
+                hours, minutes, daysMasks, zoneId, System.currentTimeMillis());
+            WritableArray results = Arguments.createArray();
+            for (int i = 0; i < count; i++) {
+                results.pushDouble(triggers[i]);
+            }
+            promise.resolve(results);
         } catch (Exception e) {
-            promise.reject("ERROR", "Failed to cancel alarm", e);
+            promise.reject("ERROR", "Failed to compute trigger times", e);
+        }
+    }
+
+    // Lateness of alarm wakeups versus their armed time, accumulated across processes
+    @ReactMethod
+    public void getFireLatencyStats(Promise promise) {
+        enqueue(promise, () -> {
+            try {
+                FireLatencyHistogram histogram = FireLatencyHistogram.getInstance(reactContext);
+                WritableMap stats = Arguments.createMap();
+                stats.putDouble("count", histogram.getCount());
+                stats.putDouble("p50Ms", histogram.getPercentile(50));
+                stats.putDouble("p95Ms", histogram.getPercentile(95));
+                stats.putDouble("p99Ms", histogram.getPercentile(99));
+                stats.putDouble("maxMs", histogram.getMax());
+
+                WritableArray buckets = Arguments.createArray();
+                for (int i = 0; i < histogram.getBucketCount(); i++) {
+                    WritableMap bucket = Arguments.createMap();
+                    if (i < FireLatencyHistogram.BUCKET_BOUNDS_MS.length) {
+                        bucket.putDouble("upperBoundMs", FireLatencyHistogram.BUCKET_BOUNDS_MS[i]);
+                    } else {
+                        bucket.putNull("upperBoundMs");
+                    }
+                    bucket.putDouble("count", histogram.getCount(i));
+                    buckets.pushMap(bucket);
+                }
+                stats.putArray("buckets", buckets);
+                promise.resolve(stats);
+            } catch (Exception e) {
+                promise.reject("ERROR", "Failed to read fire latency stats", e);
+            }
+        });
+    }
+
+    // Reads counters only, so it answers directly instead of queueing behind other work
+    @ReactMethod
+    public void getExecutorStats(Promise promise) {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("queueDepth", executor.getQueueDepth());
+        stats.putInt("queueCapacity", executor.getQueueCapacity());
+        stats.putInt("peakQueueDepth", executor.getPeakQueueDepth());
+        stats.putDouble("submitted", executor.getSubmittedCount());
+        stats.putDouble("completed", executor.getCompletedCount());
+        stats.putDouble("rejected", executor.getRejectedCount());
+        stats.putDouble("averageWaitMs", executor.getAverageWaitMillis());
+        stats.putDouble("maxWaitMs", executor.getMaxWaitMillis());
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void getStartupReport(Promise promise) {
+        WritableMap report = Arguments.createMap();
+        report.putInt("versionCode", BuildConfig.VERSION_CODE);
+        WritableArray phases = Arguments.createArray();
+        for (StartupTrace.Phase phase : StartupTrace.getPhases()) {
+            WritableMap entry = Arguments.createMap();
+            entry.putString("name", phase.name);
+            entry.putString("thread", phase.thread);
+            entry.putDouble("startMs", phase.startMs);
+            entry.putDouble("durationMs", phase.durationMs);
+            phases.pushMap(entry);
+        }
+        report.putArray("phases", phases);
+        WritableMap marks = Arguments.createMap();
+        for (StartupTrace.Mark mark : StartupTrace.getMarks()) {
+            marks.putDouble(mark.name, mark.atMs);
+        }
+        report.putMap("marks", marks);
+        // Broadcast-only starts that skipped the React/Firebase init, and what each saved
+        report.putInt("lightStarts", StartupMode.getLightStartCount(reactContext));
+        report.putDouble("savedPerLightStartMs", StartupMode.getSavedPerLightStartMs(reactContext));
+        promise.resolve(report);
+    }
+
+    @ReactMethod
+    public void dumpStartupReport(Promise promise) {
+        StartupTrace.dump(true);
+        promise.resolve(null);
+    }
+
+    // Runs work on the module's own executor; rejects right away when its queue is full
+    private void enqueue(Promise promise, Runnable work) {
+        if (!executor.submit(work)) {
+            promise.reject("QUEUE_FULL", "Alarm work queue is full, retry later");
+        }
+    }
+
+    private static AlarmRecord readAlarm(ReadableMap alarm, long now) {
+        String alarmId = alarm.getString("id");
+        String title = alarm.getString("title");
+        String message = alarm.getString("message");
+
+        if (alarm.hasKey("recurrence") && !alarm.isNull("recurrence")) {
+            ReadableMap recurrence = alarm.getMap("recurrence");
+            AlarmRecord record = readRecurringAlarm(
+                alarmId, recurrence.getArray("daysOfWeek"), recurrence.getString("time"), title, message, now);
+            if (record != null) {
+                return record;
+            }
+        }
+        return new AlarmRecord(alarmId, (long) alarm.getDouble("triggerTime"), title, message, now);
+    }
+
+    // Null when no valid day is given
+    private static AlarmRecord readRecurringAlarm(
+        String alarmId,
+        ReadableArray daysOfWeek,
+        String time,
+        String title,
+        String message,
+        long now
+    ) {
+        int[] days = new int[daysOfWeek.size()];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = daysOfWeek.getInt(i);
+        }
+        String[] parts = time.split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+
+        int daysMask = AlarmRecurrence.maskOf(days);
+        long triggerTime = AlarmRecurrence.nextOccurrence(daysMask, hour, minute, now);
+        if (triggerTime < 0) {
+            return null;
+        }
+        return new AlarmRecord(alarmId, triggerTime, title, message, now, daysMask, hour, minute);
+    }
+
+    private static WritableMap toWritableMap(AlarmRecord record) {
+        WritableMap map = Arguments.createMap();
+        map.putString("id", record.id);
+        map.putDouble("triggerTime", record.triggerTime);
+        map.putString("title", record.title);
+        map.putString("message", record.message);
+        map.putDouble("scheduledAt", record.scheduledAt);
+        if (record.isRecurring()) {
+            WritableArray days = Arguments.createArray();
+            for (int day = 0; day < 7; day++) {
+                if ((record.daysMask & (1 << day)) != 0) {
+                    days.pushInt(day);
+                }
+            }
+            WritableMap recurrence = Arguments.createMap();
+            recurrence.putArray("daysOfWeek", days);
+            recurrence.putString("time", String.format(Locale.US, "%02d:%02d", record.hour, record.minute));
+            map.putMap("recurrence", recurrence);
         }
+        return map;
     }
 }
@@ -1,25 +1,42 @@
 package com.commutetimely;
 
-import com.facebook.react.ReactPackage;
+import com.facebook.react.TurboReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+import com.facebook.react.turbomodule.core.interfaces.TurboModule;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
-public class AlarmManagerPackage implements ReactPackage {
+// Registers AlarmManager lazily under both architectures: the module is only built when
+// JS first asks for it, never as part of React context creation.
+public class AlarmManagerPackage extends TurboReactPackage {
+    private static final String MODULE_NAME = "AlarmManager";
 
     @Override
-    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new AlarmManagerModule(reactContext));
-        return modules;
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        if (MODULE_NAME.equals(name)) {
+            return AlarmManagerModuleFactory.create(reactContext);
+        }
+        return null;
     }
 
     @Override
-    public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return () -> {
+            Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+            moduleInfos.put(MODULE_NAME, new ReactModuleInfo(
+                MODULE_NAME,
+                AlarmManagerModuleFactory.MODULE_CLASS.getName(),
+                false, // canOverrideExistingModule
+                false, // needsEagerInit
+                true, // hasConstants
+                false, // isCxxModule
+                TurboModule.class.isAssignableFrom(AlarmManagerModuleFactory.MODULE_CLASS)
+            ));
+            return moduleInfos;
+        };
     }
 }
@@ -0,0 +1,112 @@
+package com.commutetimely;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs AlarmManagerModule work off the shared native-modules thread. A single worker
+// keeps schedule/cancel calls in submission order; the queue is bounded so a burst
+// is pushed back to JS instead of piling up behind slow AlarmManager binder calls.
+public class AlarmModuleExecutor {
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static AlarmModuleExecutor instance;
+
+    private final ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    private AlarmModuleExecutor() {
+        executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "alarm-module");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Let the worker exit between bursts; the module is idle most of the time
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized AlarmModuleExecutor getInstance() {
+        if (instance == null) {
+            instance = new AlarmModuleExecutor();
+        }
+        return instance;
+    }
+
+    // Returns false when the queue is full and the task was not accepted
+    public boolean submit(Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                recordWait(System.nanoTime() - enqueuedAt);
+                try {
+                    task.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        submitted.incrementAndGet();
+        int depth = queue.size();
+        int peak = peakQueueDepth.get();
+        while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth)) {
+            peak = peakQueueDepth.get();
+        }
+        return true;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long max = maxWaitNanos.get();
+        while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long done = completed.get();
+        return done == 0 ? 0 : totalWaitNanos.get() / 1e6 / done;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+}
@@ -0,0 +1,134 @@
+package com.commutetimely;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.service.notification.StatusBarNotification;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bundles commute alarm notifications under one group summary. Children are posted
+// silently (GROUP_ALERT_SUMMARY) and only the summary sounds and vibrates, at most once
+// per coalescing window, so alarms that fire a few seconds apart produce one alert.
+public final class AlarmNotificationGroup {
+    static final String GROUP_KEY = "com.commutetimely.COMMUTE_ALARMS";
+
+    // Below AlarmRequestCodes' first code, so it can't collide with an alarm's id
+    private static final int SUMMARY_NOTIFICATION_ID = 1;
+
+    static final long COALESCE_WINDOW_MS = 5_000L;
+
+    private static long lastAlertAt;
+
+    private AlarmNotificationGroup() {
+    }
+
+    // Marks a child notification as part of the group; its own alert is suppressed
+    public static NotificationCompat.Builder applyTo(NotificationCompat.Builder builder) {
+        return builder
+            .setGroup(GROUP_KEY)
+            .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+    }
+
+    // Call after posting a burst of children (notification id -> title). Re-posts the
+    // summary, alerting only if the previous alert was outside the coalescing window.
+    public static void onChildrenPosted(Context context, Map<Integer, CharSequence> posted) {
+        Map<Integer, CharSequence> children = activeChildTitles(context);
+        children.putAll(posted);
+        postSummary(context, children, claimAlert(System.currentTimeMillis()));
+    }
+
+    // Call after cancelling a child: updates the summary silently, or removes it with the last child
+    public static void onChildRemoved(Context context, int notificationId) {
+        Map<Integer, CharSequence> children = activeChildTitles(context);
+        children.remove(notificationId);
+        postSummary(context, children, false);
+    }
+
+    private static synchronized boolean claimAlert(long now) {
+        if (now - lastAlertAt < COALESCE_WINDOW_MS && now >= lastAlertAt) {
+            return false;
+        }
+        lastAlertAt = now;
+        return true;
+    }
+
+    private static void postSummary(Context context, Map<Integer, CharSequence> children, boolean alert) {
+        List<CharSequence> titles = new ArrayList<>(children.values());
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+        if (titles.isEmpty()) {
+            notificationManager.cancel(SUMMARY_NOTIFICATION_ID);
+            return;
+        }
+
+        String summaryTitle = titles.size() == 1
+            ? titles.get(0).toString()
+            : titles.size() + " commute alarms";
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle()
+            .setBigContentTitle(summaryTitle);
+        for (CharSequence title : titles) {
+            style.addLine(title);
+        }
+
+        Intent appIntent = new Intent(context, MainActivity.class);
+        appIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+            context,
+            SUMMARY_NOTIFICATION_ID,
+            appIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, NotificationChannels.COMMUTE_ALARMS)
+            .setSmallIcon(R.mipmap.ic_launcher)
+            .setContentTitle(summaryTitle)
+            .setContentText("Time to leave")
+            .setStyle(style)
+            .setNumber(titles.size())
+            .setPriority(NotificationCompat.PRIORITY_HIGH)
+            .setCategory(NotificationCompat.CATEGORY_ALARM)
+            .setGroup(GROUP_KEY)
+            .setGroupSummary(true)
+            .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY)
+            .setAutoCancel(true)
+            .setContentIntent(contentIntent);
+        if (alert) {
+            builder
+                .setVibrate(new long[]{0, 1000, 500, 1000})
+                .setDefaults(NotificationCompat.DEFAULT_SOUND | NotificationCompat.DEFAULT_LIGHTS);
+        } else {
+            // Updates inside the window, or after a removal, must not buzz again
+            builder.setSilent(true);
+        }
+
+        notificationManager.notify(SUMMARY_NOTIFICATION_ID, builder.build());
+    }
+
+    // Titles of the group's children currently showing, read back from the system so the
+    // summary stays right across processes and after the user swipes some away. Posting
+    // is asynchronous, so callers merge in what they just posted or removed.
+    private static Map<Integer, CharSequence> activeChildTitles(Context context) {
+        Map<Integer, CharSequence> titles = new LinkedHashMap<>();
+        NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
+        if (notificationManager == null) {
+            return titles;
+        }
+        for (StatusBarNotification active : notificationManager.getActiveNotifications()) {
+            Notification notification = active.getNotification();
+            if (active.getId() == SUMMARY_NOTIFICATION_ID || !GROUP_KEY.equals(notification.getGroup())) {
+                continue;
+            }
+            CharSequence title = notification.extras.getCharSequence(Notification.EXTRA_TITLE);
+            titles.put(active.getId(), title != null ? title : "Commute alarm");
+        }
+        return titles;
+    }
+}
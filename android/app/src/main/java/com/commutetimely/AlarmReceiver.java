@@ -1,85 +1,229 @@
 package com.commutetimely;
 
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
+import android.app.Notification;
 import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Build;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class AlarmReceiver extends BroadcastReceiver {
-    private static final String CHANNEL_ID = "commute-alarms";
-    private static final String CHANNEL_NAME = "Commute Alarms";
+    private static final String TAG = "AlarmReceiver";
+
+    // Notification actions, delivered back to this receiver as explicit intents
+    static final String ACTION_SNOOZE = "com.commutetimely.COMMUTE_ALARM_SNOOZE";
+    static final String ACTION_DISMISS = "com.commutetimely.COMMUTE_ALARM_DISMISS";
+    static final String EXTRA_NOTIFICATION_ID = "notificationId";
+
+    static final long SNOOZE_MS = 10 * 60 * 1000L;
+
+    // Kept under the ~10s a broadcast may run before the system treats it as hung
+    private static final long TIMEOUT_MS = 9_000L;
+    // Left after the last refresh request for persisting its result and posting the countdown
+    private static final long REFRESH_MARGIN_MS = 1_500L;
 
     @Override
     public void onReceive(Context context, Intent intent) {
+        Context appContext = context.getApplicationContext();
+        long receivedAt = System.currentTimeMillis();
+        // Refreshes must be done, results saved, before the watchdog finishes the broadcast
+        long refreshDeadline = SystemClock.elapsedRealtime() + TIMEOUT_MS - REFRESH_MARGIN_MS;
+        PendingResult pendingResult = goAsync();
+        AlarmReceiverExecutor.getInstance().execute(
+            pendingResult,
+            TIMEOUT_MS,
+            "AlarmReceiver " + intent.getAction(),
+            () -> process(appContext, intent, receivedAt, refreshDeadline)
+        );
+    }
+
+    // Runs on AlarmReceiverExecutor: decode, build, post, refresh, record metrics
+    private void process(Context context, Intent intent, long receivedAt, long refreshDeadline) {
+        String action = intent.getAction();
+        if (ACTION_SNOOZE.equals(action) || ACTION_DISMISS.equals(action)) {
+            handleAction(context, intent);
+            return;
+        }
+
+        // Decode what this broadcast delivers
+        List<AlarmRecord> alarms;
+        List<String> refreshes = Collections.emptyList();
+        long intendedTime = -1L;
+        if (AlarmScheduler.ACTION_WAKEUP.equals(action)) {
+            intendedTime = intent.getLongExtra(AlarmScheduler.EXTRA_TRIGGER_TIME, -1L);
+            // One wakeup delivers every alarm that has come due
+            AlarmScheduler.DueAlarms due = AlarmScheduler.getInstance(context).collectDueAlarms();
+            alarms = due.alarms;
+            refreshes = due.refreshes;
+        } else {
+            alarms = decodeLegacyAlarm(context, intent);
+        }
+
+        // Build and post
+        if (!alarms.isEmpty()) {
+            // Normally a no-op flag check; channels are made once per app version
+            NotificationChannels.ensureCreated(context);
+            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+            RouteThumbnailCache thumbnails = RouteThumbnailCache.getInstance(context);
+            Map<Integer, CharSequence> posted = new LinkedHashMap<>();
+            for (AlarmRecord alarm : alarms) {
+                Bitmap thumbnail = null;
+                try {
+                    int notificationId = AlarmRequestCodes.getInstance(context).get(alarm.id);
+                    // Pre-rendered; only a small PNG decode happens here
+                    thumbnail = thumbnails.load(alarm.id);
+                    notificationManager.notify(notificationId, buildNotification(context, notificationId, alarm, thumbnail));
+                    // The alarm replaced its countdown in the same slot
+                    DepartureCountdown.clear(notificationId);
+                    posted.put(notificationId, alarm.title);
+                } catch (Exception e) {
+                    Log.e(TAG, "Failed to post notification for " + alarm.id, e);
+                } finally {
+                    // notify() has parcelled the pixels, so the bitmap can go back to the pool
+                    RouteThumbnailRenderer.release(thumbnail);
+                }
+            }
+            // The children are silent; the summary gives the burst its single alert
+            if (!posted.isEmpty()) {
+                AlarmNotificationGroup.onChildrenPosted(context, posted);
+            }
+        }
+
+        // Refreshes only move later alarms, so they run after this wakeup's alarms are
+        // posted and a slow network can't hold those back. They share one deadline; any
+        // that don't get to run keep the alarm as planned.
+        boolean countdown = !refreshes.isEmpty() && DepartureCountdown.isEnabled(context);
+        for (String alarmId : refreshes) {
+            CommuteRefresher.refresh(context, alarmId, refreshDeadline);
+            // Shown even if the refresh failed, with the departure as last planned
+            AlarmRecord refreshed = countdown ? AlarmRegistry.getInstance(context).get(alarmId) : null;
+            if (refreshed != null) {
+                DepartureCountdown.update(context, refreshed);
+            }
+        }
+
+        // Metrics; lateness is measured at delivery, before any queueing here
+        if (intendedTime > 0) {
+            FireLatencyHistogram.getInstance(context).record(receivedAt - intendedTime);
+        }
+    }
+
+    // Alarms armed with their own PendingIntent before the timer wheel existed
+    private List<AlarmRecord> decodeLegacyAlarm(Context context, Intent intent) {
         String alarmId = intent.getStringExtra("alarmId");
         String title = intent.getStringExtra("title");
         String message = intent.getStringExtra("message");
 
         if (alarmId == null || title == null || message == null) {
-            return;
+            return Collections.emptyList();
         }
 
-        createNotificationChannel(context);
-        showNotification(context, alarmId, title, message);
+        // Only its own PendingIntent is spent; a record of the same id in the wheel is a
+        // later occurrence armed since, and stays
+        AlarmScheduler.getInstance(context).cancelLegacyAlarm(alarmId);
+        return Collections.singletonList(
+            new AlarmRecord(alarmId, System.currentTimeMillis(), title, message, 0L));
     }
 
-    private void createNotificationChannel(Context context) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                CHANNEL_ID,
-                CHANNEL_NAME,
-                NotificationManager.IMPORTANCE_HIGH
-            );
-            channel.setDescription("Notifications for commute reminders");
-            channel.enableVibration(true);
-            channel.setVibrationPattern(new long[]{0, 1000, 500, 1000});
-            channel.enableLights(true);
-
-            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
-            if (notificationManager != null) {
-                notificationManager.createNotificationChannel(channel);
+    // Snooze re-arms the alarm through AlarmScheduler like any other; both actions then
+    // clear the notification. Only local state is touched, so this stays well inside
+    // the receiver's time budget.
+    private void handleAction(Context context, Intent intent) {
+        String alarmId = intent.getStringExtra("alarmId");
+        int notificationId = intent.getIntExtra(EXTRA_NOTIFICATION_ID, -1);
+
+        if (ACTION_SNOOZE.equals(intent.getAction()) && alarmId != null) {
+            String title = intent.getStringExtra("title");
+            String message = intent.getStringExtra("message");
+            try {
+                AlarmScheduler.getInstance(context).schedule(
+                    AlarmScheduler.snoozeIdFor(alarmId),
+                    System.currentTimeMillis() + SNOOZE_MS,
+                    title != null ? title : "",
+                    message != null ? message : ""
+                );
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to snooze alarm " + alarmId, e);
             }
         }
+
+        if (notificationId >= 0) {
+            NotificationManagerCompat.from(context).cancel(notificationId);
+            AlarmNotificationGroup.onChildRemoved(context, notificationId);
+            DepartureCountdown.clear(notificationId);
+        }
     }
 
-    private void showNotification(Context context, String alarmId, String title, String message) {
-        try {
-            // Create intent to open the app when notification is tapped
-            Intent appIntent = new Intent(context, MainActivity.class);
-            appIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-            
-            PendingIntent pendingIntent = PendingIntent.getActivity(
-                context,
-                alarmId.hashCode(),
-                appIntent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            // Build the notification
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
-                .setSmallIcon(R.mipmap.ic_launcher)
-                .setContentTitle(title)
-                .setContentText(message)
-                .setStyle(new NotificationCompat.BigTextStyle().bigText(message))
-                .setPriority(NotificationCompat.PRIORITY_HIGH)
-                .setCategory(NotificationCompat.CATEGORY_ALARM)
-                .setAutoCancel(true)
-                .setContentIntent(pendingIntent)
-                .setVibrate(new long[]{0, 1000, 500, 1000})
-                .setDefaults(NotificationCompat.DEFAULT_SOUND | NotificationCompat.DEFAULT_LIGHTS);
-
-            // Show the notification
-            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
-            notificationManager.notify(alarmId.hashCode(), builder.build());
+    private PendingIntent createActionIntent(
+        Context context,
+        String action,
+        int notificationId,
+        String alarmId,
+        String title,
+        String message
+    ) {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction(action);
+        intent.putExtra(EXTRA_NOTIFICATION_ID, notificationId);
+        intent.putExtra("alarmId", alarmId);
+        intent.putExtra("title", title);
+        intent.putExtra("message", message);
+        // The action string keeps snooze and dismiss distinct under the same request code
+        return PendingIntent.getBroadcast(
+            context,
+            notificationId,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+    }
+
+    private Notification buildNotification(Context context, int notificationId, AlarmRecord alarm, Bitmap thumbnail) {
+        // Create intent to open the app when notification is tapped
+        Intent appIntent = new Intent(context, MainActivity.class);
+        appIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+            context,
+            notificationId,
+            appIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, NotificationChannels.COMMUTE_ALARMS)
+            .setSmallIcon(R.mipmap.ic_launcher)
+            .setContentTitle(alarm.title)
+            .setContentText(alarm.message)
+            .setPriority(NotificationCompat.PRIORITY_HIGH)
+            .setCategory(NotificationCompat.CATEGORY_ALARM)
+            .setAutoCancel(true)
+            .setContentIntent(pendingIntent)
+            .addAction(0, "Snooze", createActionIntent(
+                context, ACTION_SNOOZE, notificationId, alarm.id, alarm.title, alarm.message))
+            .addAction(0, "Dismiss", createActionIntent(
+                context, ACTION_DISMISS, notificationId, alarm.id, alarm.title, alarm.message))
+            .setVibrate(new long[]{0, 1000, 500, 1000})
+            .setDefaults(NotificationCompat.DEFAULT_SOUND | NotificationCompat.DEFAULT_LIGHTS);
+        if (thumbnail != null) {
+            // Route map when expanded, small preview when collapsed
+            builder
+                .setLargeIcon(thumbnail)
+                .setStyle(new NotificationCompat.BigPictureStyle()
+                    .bigPicture(thumbnail)
+                    .bigLargeIcon((Bitmap) null)
+                    .setSummaryText(alarm.message));
+        } else {
+            builder.setStyle(new NotificationCompat.BigTextStyle().bigText(alarm.message));
         }
+        return AlarmNotificationGroup.applyTo(builder).build();
     }
 }
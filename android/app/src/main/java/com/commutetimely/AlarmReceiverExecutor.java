@@ -0,0 +1,83 @@
+package com.commutetimely;
+
+import android.content.BroadcastReceiver;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Shared worker pool for broadcast receivers that hand their work off with goAsync().
+// Every task gets a watchdog on the main thread that finishes the broadcast once the
+// time budget is spent, so a slow step (network, binder) can never cause an ANR.
+// finish() is called exactly once, by whichever of the task and the watchdog is first.
+public class AlarmReceiverExecutor {
+    private static final String TAG = "AlarmReceiverExecutor";
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static AlarmReceiverExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private AlarmReceiverExecutor() {
+        executor = new ThreadPoolExecutor(
+            THREADS, THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "alarm-receiver");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized AlarmReceiverExecutor getInstance() {
+        if (instance == null) {
+            instance = new AlarmReceiverExecutor();
+        }
+        return instance;
+    }
+
+    public void execute(BroadcastReceiver.PendingResult pendingResult, long timeoutMillis, String label, Runnable work) {
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable watchdog = () -> {
+            if (finished.compareAndSet(false, true)) {
+                Log.w(TAG, label + " still running after " + timeoutMillis + "ms, finishing broadcast");
+                pendingResult.finish();
+            }
+        };
+        mainHandler.postDelayed(watchdog, timeoutMillis);
+
+        Runnable task = () -> {
+            try {
+                work.run();
+            } catch (Exception e) {
+                Log.e(TAG, label + " failed", e);
+            } finally {
+                mainHandler.removeCallbacks(watchdog);
+                if (finished.compareAndSet(false, true)) {
+                    pendingResult.finish();
+                }
+            }
+        };
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated by a burst. The caller is usually onReceive on the main thread,
+            // which must never do this work, so it gets a thread of its own instead
+            Log.w(TAG, "Receiver pool full, running " + label + " on an overflow thread");
+            Thread overflow = new Thread(task, "alarm-receiver-overflow");
+            overflow.setDaemon(true);
+            overflow.start();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.commutetimely;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// A single alarm as armed by AlarmManagerModule, in the form it is persisted by AlarmRegistry.
+// A recurring alarm also carries its rule: a days mask (bit 0 = Sunday, as in JS getDay())
+// and the local HH:MM it fires at; triggerTime is always the next occurrence.
+public class AlarmRecord {
+    public final String id;
+    public final long triggerTime;
+    public final String title;
+    public final String message;
+    public final long scheduledAt;
+    public final int daysMask;
+    public final int hour;
+    public final int minute;
+
+    public AlarmRecord(String id, long triggerTime, String title, String message, long scheduledAt) {
+        this(id, triggerTime, title, message, scheduledAt, 0, 0, 0);
+    }
+
+    public AlarmRecord(
+        String id,
+        long triggerTime,
+        String title,
+        String message,
+        long scheduledAt,
+        int daysMask,
+        int hour,
+        int minute
+    ) {
+        this.id = id;
+        this.triggerTime = triggerTime;
+        this.title = title;
+        this.message = message;
+        this.scheduledAt = scheduledAt;
+        this.daysMask = daysMask;
+        this.hour = hour;
+        this.minute = minute;
+    }
+
+    public boolean isRecurring() {
+        return daysMask != 0;
+    }
+
+    public boolean sameRecurrence(AlarmRecord other) {
+        return daysMask == other.daysMask && hour == other.hour && minute == other.minute;
+    }
+
+    // Same alarm and rule, moved to another trigger time
+    public AlarmRecord withTrigger(long triggerTime, String message) {
+        return new AlarmRecord(id, triggerTime, title, message, scheduledAt, daysMask, hour, minute);
+    }
+
+    public String toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("triggerTime", triggerTime);
+        json.put("title", title);
+        json.put("message", message);
+        json.put("scheduledAt", scheduledAt);
+        if (isRecurring()) {
+            json.put("daysMask", daysMask);
+            json.put("hour", hour);
+            json.put("minute", minute);
+        }
+        return json.toString();
+    }
+
+    public static AlarmRecord fromJson(String value) throws JSONException {
+        JSONObject json = new JSONObject(value);
+        return new AlarmRecord(
+            json.getString("id"),
+            json.getLong("triggerTime"),
+            json.optString("title", ""),
+            json.optString("message", ""),
+            json.optLong("scheduledAt", 0L),
+            json.optInt("daysMask", 0),
+            json.optInt("hour", 0),
+            json.optInt("minute", 0)
+        );
+    }
+}
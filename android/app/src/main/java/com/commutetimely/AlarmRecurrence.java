@@ -0,0 +1,70 @@
+package com.commutetimely;
+
+// Expands a recurring alarm rule (days mask + local HH:MM) into concrete trigger times.
+public final class AlarmRecurrence {
+    // Bit n is the day JS getDay() numbers n, i.e. Calendar.DAY_OF_WEEK - 1
+    public static final int EVERY_DAY = 0b1111111;
+    public static final int WEEKDAYS = 0b0111110;
+    public static final int WEEKENDS = 0b1000001;
+
+    private static final long REFRESH_SHIFT_LIMIT_MS = 12 * 60 * 60 * 1000L;
+
+    private AlarmRecurrence() {
+    }
+
+    // First occurrence strictly after the given time in the device zone, or -1 if the
+    // mask has no days
+    public static long nextOccurrence(int daysMask, int hour, int minute, long after) {
+        return nextOccurrence(daysMask, hour, minute, null, after);
+    }
+
+    static long nextOccurrence(int daysMask, int hour, int minute, String zoneId, long after) {
+        if ((daysMask & EVERY_DAY) == 0) {
+            return -1L;
+        }
+        return TriggerCalculator.nextTrigger(hour, minute, daysMask, zoneId, after);
+    }
+
+    // The occurrence a stored trigger time stands for, resolved again from the rule in
+    // the device zone. Stored times are epoch millis from the zone in effect when they
+    // were armed, so after a move from New York to Los Angeles a 07:45 alarm would fire
+    // at 04:45. Any refresh shift is dropped; the refresh runs again before it.
+    public static long currentOccurrence(int daysMask, int hour, int minute, long triggerTime) {
+        return currentOccurrence(daysMask, hour, minute, null, triggerTime);
+    }
+
+    static long currentOccurrence(int daysMask, int hour, int minute, String zoneId, long triggerTime) {
+        return nextOccurrence(daysMask, hour, minute, zoneId, triggerTime - REFRESH_SHIFT_LIMIT_MS);
+    }
+
+    // Next occurrence once the occurrence that fired at firedAt is done, and after now.
+    // A refresh may have moved that occurrence off the rule's HH:MM, so this counts from
+    // the rule time it stood for rather than from when it fired; otherwise an alarm
+    // refreshed to 07:38 would fire again at its 07:45 rule time the same morning.
+    public static long nextOccurrenceAfterFire(int daysMask, int hour, int minute, long firedAt, long now) {
+        return nextOccurrenceAfterFire(daysMask, hour, minute, null, firedAt, now);
+    }
+
+    static long nextOccurrenceAfterFire(int daysMask, int hour, int minute, String zoneId, long firedAt, long now) {
+        if ((daysMask & EVERY_DAY) == 0) {
+            return -1L;
+        }
+        // Refreshes shift an occurrence by minutes, so the rule time it stood for is the
+        // first one after half a day before it fired, even across midnight
+        long ruleTime = TriggerCalculator.nextTrigger(hour, minute, daysMask, zoneId, firedAt - REFRESH_SHIFT_LIMIT_MS);
+        if (ruleTime < 0) {
+            return -1L;
+        }
+        return TriggerCalculator.nextTrigger(hour, minute, daysMask, zoneId, Math.max(ruleTime, now));
+    }
+
+    public static int maskOf(int[] daysOfWeek) {
+        int mask = 0;
+        for (int day : daysOfWeek) {
+            if (day >= 0 && day <= 6) {
+                mask |= 1 << day;
+            }
+        }
+        return mask;
+    }
+}
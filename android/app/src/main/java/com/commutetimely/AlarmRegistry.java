@@ -0,0 +1,75 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// On-disk record of every alarm the native side has armed. Backed by SharedPreferences
+// so it survives process death; reads are served from an in-memory copy.
+public class AlarmRegistry {
+    private static final String TAG = "AlarmRegistry";
+    private static final String PREFS_NAME = "commute_alarm_registry";
+
+    private static AlarmRegistry instance;
+
+    private final SharedPreferences prefs;
+    private final Map<String, AlarmRecord> alarms = new HashMap<>();
+
+    private AlarmRegistry(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        load();
+    }
+
+    public static synchronized AlarmRegistry getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlarmRegistry(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private void load() {
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            Object value = entry.getValue();
+            if (!(value instanceof String)) {
+                continue;
+            }
+            try {
+                AlarmRecord record = AlarmRecord.fromJson((String) value);
+                alarms.put(record.id, record);
+            } catch (JSONException e) {
+                Log.w(TAG, "Dropping unreadable alarm record " + entry.getKey(), e);
+                prefs.edit().remove(entry.getKey()).apply();
+            }
+        }
+    }
+
+    public synchronized void put(AlarmRecord record) {
+        try {
+            prefs.edit().putString(record.id, record.toJson()).apply();
+            alarms.put(record.id, record);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to persist alarm " + record.id, e);
+        }
+    }
+
+    public synchronized void remove(String alarmId) {
+        if (alarms.remove(alarmId) != null) {
+            prefs.edit().remove(alarmId).apply();
+        }
+    }
+
+    public synchronized AlarmRecord get(String alarmId) {
+        return alarms.get(alarmId);
+    }
+
+    public synchronized List<AlarmRecord> getAll() {
+        return new ArrayList<>(alarms.values());
+    }
+}
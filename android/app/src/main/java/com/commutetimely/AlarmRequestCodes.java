@@ -0,0 +1,56 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Hands out a stable, unique int per alarm id for PendingIntent request codes and
+// notification ids. Unlike alarmId.hashCode() two ids can never share a code.
+// Codes are allocated from a persisted counter and never reused.
+public class AlarmRequestCodes {
+    private static final String PREFS_NAME = "commute_alarm_request_codes";
+    private static final String KEY_NEXT_CODE = "__next_code";
+
+    // Codes below this are reserved for fixed PendingIntents such as the wheel wakeup
+    private static final int FIRST_CODE = 1000;
+
+    private static AlarmRequestCodes instance;
+
+    private final SharedPreferences prefs;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private int nextCode;
+
+    private AlarmRequestCodes(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            if (!KEY_NEXT_CODE.equals(entry.getKey()) && entry.getValue() instanceof Integer) {
+                codes.put(entry.getKey(), (Integer) entry.getValue());
+            }
+        }
+        nextCode = prefs.getInt(KEY_NEXT_CODE, FIRST_CODE);
+    }
+
+    public static synchronized AlarmRequestCodes getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlarmRequestCodes(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public synchronized int get(String alarmId) {
+        Integer code = codes.get(alarmId);
+        if (code != null) {
+            return code;
+        }
+
+        int allocated = nextCode++;
+        codes.put(alarmId, allocated);
+        prefs.edit()
+            .putInt(alarmId, allocated)
+            .putInt(KEY_NEXT_CODE, nextCode)
+            .apply();
+        return allocated;
+    }
+}
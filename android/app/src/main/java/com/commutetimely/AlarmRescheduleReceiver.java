@@ -0,0 +1,34 @@
+package com.commutetimely;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+// Re-arms pending commute alarms from AlarmRegistry after events that clear or
+// shift AlarmManager state. Works purely from persisted state; React is never started.
+public class AlarmRescheduleReceiver extends BroadcastReceiver {
+    private static final String TAG = "AlarmRescheduleReceiver";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (!Intent.ACTION_BOOT_COMPLETED.equals(action)
+            && !Intent.ACTION_TIME_CHANGED.equals(action)
+            && !Intent.ACTION_TIMEZONE_CHANGED.equals(action)
+            && !Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            return;
+        }
+
+        if (Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+            TriggerCalculator.onTimeZoneChanged();
+        }
+
+        try {
+            int armed = AlarmScheduler.getInstance(context).rearmAll();
+            Log.i(TAG, "Re-armed " + armed + " alarms after " + action);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to re-arm alarms after " + action, e);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.commutetimely;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Arms and disarms commute alarms and keeps AlarmRegistry in sync. Has no React
+// dependency so it can run from broadcast receivers in a bare process.
+//
+// Every alarm lives in an in-process AlarmTimerWheel; only the wheel's earliest
+// deadline is registered with AlarmManager, through a single wakeup PendingIntent.
+// An alarm with a RefreshPlan also gets a refresh entry in the wheel, leadMinutes
+// ahead of it; refresh entries are derived from the plan and never persisted.
+public class AlarmScheduler implements ExactAlarmPermission.Listener {
+    static final String ACTION_PREFIX = "com.commutetimely.COMMUTE_ALARM_";
+    static final String ACTION_WAKEUP = "com.commutetimely.COMMUTE_ALARM_WAKEUP";
+    // Wall-clock time the wakeup was armed for, used to measure delivery lateness
+    static final String EXTRA_TRIGGER_TIME = "triggerTime";
+    // Wheel ids of refresh entries are the alarm id with this prefix
+    static final String REFRESH_PREFIX = "refresh:";
+    // Snoozed alarms are armed under their own id so a recurring rule isn't overwritten
+    static final String SNOOZE_SUFFIX = ":snooze";
+
+    private static final int WAKEUP_REQUEST_CODE = 0;
+
+    // Alarms missed while the device was off are still delivered if they are this recent
+    private static final long MISSED_ALARM_GRACE_MS = 15 * 60 * 1000L;
+
+    private static AlarmScheduler instance;
+
+    // Outcome of reconcile(); systemCallsSaved is measured against cancelling and
+    // re-creating every desired alarm and cancelling every stale one.
+    public static final class ReconcileResult {
+        public int inserted;
+        public int moved;
+        public int updated;
+        public int deleted;
+        public int unchanged;
+        public int systemCalls;
+        public int systemCallsSaved;
+    }
+
+    // What a wakeup has to deliver: alarms to notify and alarm ids to refresh
+    public static final class DueAlarms {
+        public final List<AlarmRecord> alarms = new ArrayList<>();
+        public final List<String> refreshes = new ArrayList<>();
+    }
+
+    private final Context context;
+    private final AlarmManager alarmManager;
+    private final AlarmRegistry registry;
+    private final AlarmRequestCodes requestCodes;
+    private final RefreshPlanStore refreshPlans;
+    private AlarmTimerWheel wheel;
+
+    // Deadline currently registered with AlarmManager, or -1 when nothing is armed
+    private long armedDeadline = -1L;
+    // Whether that deadline was armed exactly or fell back to an inexact alarm
+    private boolean armedExact = true;
+
+    private AlarmScheduler(Context context) {
+        this.context = context;
+        this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        this.registry = AlarmRegistry.getInstance(context);
+        this.requestCodes = AlarmRequestCodes.getInstance(context);
+        this.refreshPlans = RefreshPlanStore.getInstance(context);
+        // The process may have been started by a late wakeup, so overdue alarms are kept
+        // for collectDueAlarms to deliver; only boot and clock changes apply the grace
+        // period. Re-arming also restores a wakeup that force-stop or a revoked
+        // permission cleared from AlarmManager.
+        loadWheel(System.currentTimeMillis(), false);
+        rearm(false);
+        ExactAlarmPermission.addListener(this);
+    }
+
+    public static synchronized AlarmScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlarmScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public boolean isAvailable() {
+        return alarmManager != null;
+    }
+
+    public boolean canScheduleExact() {
+        return alarmManager != null && ExactAlarmPermission.isGranted(context);
+    }
+
+    @Override
+    public synchronized void onExactAlarmPermissionChanged(boolean granted) {
+        // Upgrade a wakeup that had to fall back to inexact scheduling
+        if (granted && armedDeadline >= 0 && !armedExact) {
+            rearm(true);
+        }
+    }
+
+    public void schedule(String alarmId, long triggerTimeMillis, String title, String message) {
+        schedule(new AlarmRecord(alarmId, triggerTimeMillis, title, message, System.currentTimeMillis()));
+    }
+
+    public synchronized void schedule(AlarmRecord record) {
+        if (registry.get(record.id) == null) {
+            // An alarm armed by a pre-wheel build would otherwise fire a second time
+            cancelLegacyAlarm(record.id);
+        }
+        // Allocate now so the fire path only ever does a lookup
+        requestCodes.get(record.id);
+        registry.put(record);
+        wheel.add(record.id, record.triggerTime);
+        armRefresh(record, record.scheduledAt);
+        rearm(false);
+    }
+
+    public synchronized void cancel(String alarmId) {
+        cancelLegacyAlarm(alarmId);
+        registry.remove(alarmId);
+        // The plan is kept so the alarm's next occurrence is refreshed as well
+        boolean removed = wheel.remove(REFRESH_PREFIX + alarmId);
+        if (wheel.remove(alarmId) || removed) {
+            rearm(false);
+        }
+    }
+
+    static String snoozeIdFor(String alarmId) {
+        return alarmId.endsWith(SNOOZE_SUFFIX) ? alarmId : alarmId + SNOOZE_SUFFIX;
+    }
+
+    // Attaches a refresh plan to an alarm id; returns whether a refresh is now armed
+    public synchronized boolean setRefreshPlan(RefreshPlan plan) {
+        refreshPlans.put(plan);
+        AlarmRecord record = registry.get(plan.alarmId);
+        boolean armed = record != null && armRefresh(record, System.currentTimeMillis());
+        rearm(false);
+        return armed;
+    }
+
+    public synchronized void clearRefreshPlan(String alarmId) {
+        refreshPlans.remove(alarmId);
+        if (wheel.remove(REFRESH_PREFIX + alarmId)) {
+            rearm(false);
+        }
+    }
+
+    // Called by CommuteRefresher with the recomputed leave time. The refresh for this
+    // occurrence is spent, so only the final alarm is moved. Returns false if the
+    // alarm was cancelled or fired while the refresh was running.
+    public synchronized boolean applyRefresh(String alarmId, long triggerTimeMillis, String message) {
+        AlarmRecord current = registry.get(alarmId);
+        if (current == null) {
+            return false;
+        }
+        registry.put(current.withTrigger(triggerTimeMillis, message));
+        wheel.add(alarmId, triggerTimeMillis);
+        rearm(false);
+        return true;
+    }
+
+    // Brings the armed set in line with desired, touching only alarms that were added,
+    // removed or whose trigger time changed, and arming the wakeup at most once.
+    public synchronized ReconcileResult reconcile(List<AlarmRecord> desired) {
+        ReconcileResult result = new ReconcileResult();
+        Set<String> desiredIds = new HashSet<>();
+
+        for (AlarmRecord record : desired) {
+            desiredIds.add(record.id);
+            AlarmRecord current = registry.get(record.id);
+
+            if (current == null) {
+                cancelLegacyAlarm(record.id);
+                requestCodes.get(record.id);
+                wheel.add(record.id, record.triggerTime);
+                armRefresh(record, record.scheduledAt);
+                result.inserted++;
+            } else if (current.triggerTime != record.triggerTime) {
+                wheel.add(record.id, record.triggerTime);
+                armRefresh(record, record.scheduledAt);
+                result.moved++;
+            } else if (!current.title.equals(record.title)
+                || !current.message.equals(record.message)
+                || !current.sameRecurrence(record)) {
+                // Content is read from the registry at fire time, so no re-arm is needed
+                result.updated++;
+            } else {
+                result.unchanged++;
+                continue;
+            }
+            registry.put(record);
+        }
+
+        for (AlarmRecord current : registry.getAll()) {
+            // Snoozes were asked for by the user, not JS, so they are left to fire
+            if (!desiredIds.contains(current.id) && !current.id.endsWith(SNOOZE_SUFFIX)) {
+                registry.remove(current.id);
+                wheel.remove(current.id);
+                // Dropped from the desired set, so the destination itself is gone
+                wheel.remove(REFRESH_PREFIX + current.id);
+                refreshPlans.remove(current.id);
+                RouteThumbnailCache.getInstance(context).remove(current.id);
+                result.deleted++;
+            }
+        }
+
+        result.systemCalls = rearm(false) ? 1 : 0;
+        result.systemCallsSaved = desired.size() * 2 + result.deleted - result.systemCalls;
+        return result;
+    }
+
+    // Earliest pending alarm; the wheel's own next deadline may be a refresh entry
+    public synchronized long getNextTriggerTime() {
+        long next = -1L;
+        for (AlarmRecord record : registry.getAll()) {
+            if (wheel.contains(record.id) && (next < 0 || record.triggerTime < next)) {
+                next = record.triggerTime;
+            }
+        }
+        return next;
+    }
+
+    // Called from the wakeup broadcast: removes every alarm that is now due from the
+    // wheel and the registry, arms the next deadline and returns what is due. Recurring
+    // alarms are rolled forward to their next occurrence instead of being removed.
+    public synchronized DueAlarms collectDueAlarms() {
+        DueAlarms due = new DueAlarms();
+        long now = System.currentTimeMillis();
+        for (String id : wheel.advance(now)) {
+            if (id.startsWith(REFRESH_PREFIX)) {
+                due.refreshes.add(id.substring(REFRESH_PREFIX.length()));
+                continue;
+            }
+            AlarmRecord record = registry.get(id);
+            if (record == null) {
+                continue;
+            }
+            due.alarms.add(record);
+            if (!rollForward(record, now)) {
+                registry.remove(id);
+            }
+        }
+        // The wakeup that got us here is spent
+        armedDeadline = -1L;
+        rearm(false);
+        return due;
+    }
+
+    // Rebuilds the wheel from the registry and re-arms the wakeup, e.g. after a
+    // reboot cleared AlarmManager or the wall clock moved. Returns the number of
+    // pending alarms.
+    public synchronized int rearmAll() {
+        if (alarmManager == null) {
+            return 0;
+        }
+
+        for (AlarmRecord record : registry.getAll()) {
+            // Alarms armed before the wheel existed have their own PendingIntent
+            cancelLegacyAlarm(record.id);
+            if (!record.isRecurring()) {
+                continue;
+            }
+            // The zone may have changed, so the stored time is resolved from the rule again
+            long resolved = AlarmRecurrence.currentOccurrence(
+                record.daysMask, record.hour, record.minute, record.triggerTime);
+            if (resolved >= 0 && resolved != record.triggerTime) {
+                registry.put(record.withTrigger(resolved, record.message));
+            }
+        }
+
+        // A fresh wheel, since the wall clock may have moved backwards
+        int pending = loadWheel(System.currentTimeMillis(), true);
+        rearm(true);
+        return pending;
+    }
+
+    // Fills a fresh wheel from the registry and returns the number of pending alarms.
+    // With dropMissed, alarms older than the grace period are not delivered late.
+    private int loadWheel(long now, boolean dropMissed) {
+        wheel = new AlarmTimerWheel(now);
+        int pending = 0;
+        for (AlarmRecord record : registry.getAll()) {
+            if (dropMissed && record.triggerTime < now - MISSED_ALARM_GRACE_MS) {
+                // Too stale to be useful; recurring alarms skip ahead, one-shot ones are
+                // left for JS to schedule on its next pass
+                if (rollForward(record, now)) {
+                    pending++;
+                } else {
+                    registry.remove(record.id);
+                }
+                continue;
+            }
+            // Overdue alarms land on the expired list and fire on the next wakeup
+            wheel.add(record.id, record.triggerTime);
+            armRefresh(record, now);
+            pending++;
+        }
+        return pending;
+    }
+
+    // Re-arms a recurring alarm at its next occurrence after the one it holds and after
+    // now; false if it doesn't recur
+    private boolean rollForward(AlarmRecord record, long now) {
+        long next = record.isRecurring()
+            ? AlarmRecurrence.nextOccurrenceAfterFire(
+                record.daysMask, record.hour, record.minute, record.triggerTime, now)
+            : -1L;
+        if (next < 0) {
+            return false;
+        }
+        AlarmRecord nextRecord = record.withTrigger(next, record.message);
+        registry.put(nextRecord);
+        wheel.add(record.id, next);
+        armRefresh(nextRecord, now);
+        return true;
+    }
+
+    // Puts the alarm's refresh entry in the wheel if it has a plan and the refresh time
+    // is still ahead; a refresh that would run late is skipped. Returns whether it was armed.
+    private boolean armRefresh(AlarmRecord record, long now) {
+        String refreshId = REFRESH_PREFIX + record.id;
+        RefreshPlan plan = refreshPlans.get(record.id);
+        long refreshTime = plan != null ? record.triggerTime - plan.leadMillis() : -1L;
+        if (refreshTime <= now) {
+            wheel.remove(refreshId);
+            return false;
+        }
+        wheel.add(refreshId, refreshTime);
+        return true;
+    }
+
+    // Returns whether AlarmManager had to be called
+    private boolean rearm(boolean force) {
+        if (alarmManager == null) {
+            return false;
+        }
+
+        long nextDeadline = wheel.nextDeadline();
+        if (!force && nextDeadline == armedDeadline) {
+            return false;
+        }
+
+        PendingIntent wakeupIntent = createWakeupIntent(nextDeadline);
+        if (nextDeadline < 0) {
+            alarmManager.cancel(wakeupIntent);
+            armedDeadline = -1L;
+            return true;
+        }
+
+        boolean exact = canScheduleExact();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            if (exact) {
+                // Android 6+ - use setExactAndAllowWhileIdle
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, nextDeadline, wakeupIntent);
+            } else {
+                // Exact alarm permission revoked - fire as close as Doze allows
+                alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, nextDeadline, wakeupIntent);
+            }
+        } else {
+            // Android 5 and below - use setExact
+            alarmManager.setExact(AlarmManager.RTC_WAKEUP, nextDeadline, wakeupIntent);
+        }
+        armedDeadline = nextDeadline;
+        armedExact = exact;
+        return true;
+    }
+
+    private PendingIntent createWakeupIntent(long triggerTime) {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction(ACTION_WAKEUP);
+        intent.putExtra(EXTRA_TRIGGER_TIME, triggerTime);
+        return PendingIntent.getBroadcast(
+            context,
+            WAKEUP_REQUEST_CODE,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+    }
+
+    // Cancels only the alarm's own pre-wheel PendingIntent, leaving registry and wheel alone
+    void cancelLegacyAlarm(String alarmId) {
+        // Create the same intent used for per-alarm scheduling, which was keyed by hashCode
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction(ACTION_PREFIX + alarmId);
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context,
+            alarmId.hashCode(),
+            intent,
+            PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE
+        );
+        if (pendingIntent != null && alarmManager != null) {
+            alarmManager.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.commutetimely;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hierarchical timing wheel that multiplexes every commute alarm onto a single
+// AlarmManager wakeup. Four levels of 64 one-second slots cover ~194 days; anything
+// further out waits in an overflow list. Deadlines are rounded up to the next tick,
+// so an entry never fires early and at most one tick late.
+//
+// Not thread-safe; AlarmScheduler serializes access.
+final class AlarmTimerWheel {
+    static final long TICK_MS = 1000L;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private static final int LEVEL_EXPIRED = -1;
+    private static final int LEVEL_OVERFLOW = LEVELS;
+
+    private static final class Entry {
+        final String id;
+        final long tick;
+        int level;
+        int slot;
+        Entry prev;
+        Entry next;
+
+        Entry(String id, long tick) {
+            this.id = id;
+            this.tick = tick;
+        }
+    }
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final int[] levelCounts = new int[LEVELS];
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Entry> expired = new ArrayList<>();
+    private Entry overflow;
+
+    // Last tick that has been processed; entries at or before it are due
+    private long cursor;
+
+    AlarmTimerWheel(long nowMillis) {
+        cursor = Math.floorDiv(nowMillis, TICK_MS);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    boolean contains(String id) {
+        return entries.containsKey(id);
+    }
+
+    void add(String id, long deadlineMillis) {
+        remove(id);
+        Entry entry = new Entry(id, ceilTick(deadlineMillis));
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    boolean remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.level == LEVEL_EXPIRED) {
+            expired.remove(entry);
+        } else {
+            unlink(entry);
+        }
+        return true;
+    }
+
+    // Moves the wheel forward to nowMillis and returns the ids of every entry that
+    // became due, earliest first. Empty stretches of the wheel are skipped rather
+    // than walked tick by tick.
+    List<String> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, TICK_MS);
+        List<Entry> due = new ArrayList<>();
+
+        while (cursor < target) {
+            int lowest = 0;
+            while (lowest < LEVELS && levelCounts[lowest] == 0) {
+                lowest++;
+            }
+            if (lowest == LEVELS && overflow == null) {
+                cursor = target;
+                break;
+            }
+            if (lowest > 0) {
+                // Nothing below this level, so nothing can fire before its next cascade
+                int shift = SLOT_BITS * lowest;
+                long beforeBoundary = (((cursor >>> shift) + 1) << shift) - 1;
+                if (beforeBoundary >= target) {
+                    cursor = target;
+                    break;
+                }
+                cursor = beforeBoundary;
+            }
+
+            cursor++;
+            cascade();
+
+            int slot = (int) (cursor & SLOT_MASK);
+            Entry entry = slots[0][slot];
+            while (entry != null) {
+                Entry next = entry.next;
+                unlink(entry);
+                due.add(entry);
+                entry = next;
+            }
+        }
+
+        // Includes entries a cascade just placed at the cursor itself
+        due.addAll(expired);
+        expired.clear();
+
+        if (due.size() > 1) {
+            Collections.sort(due, (a, b) -> Long.compare(a.tick, b.tick));
+        }
+        List<String> ids = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            entries.remove(entry.id);
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    // Wall-clock time at which the earliest entry becomes due, or -1 when empty.
+    // Entries on lower levels always precede those on higher ones, so the first
+    // occupied slot of the lowest occupied level holds the earliest deadline.
+    long nextDeadline() {
+        if (!expired.isEmpty()) {
+            return cursor * TICK_MS;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelCounts[level] == 0) {
+                continue;
+            }
+            int shift = SLOT_BITS * level;
+            for (int slot = (int) ((cursor >>> shift) & SLOT_MASK) + 1; slot < SLOTS; slot++) {
+                if (slots[level][slot] != null) {
+                    return earliestTick(slots[level][slot]) * TICK_MS;
+                }
+            }
+        }
+        return overflow != null ? earliestTick(overflow) * TICK_MS : -1L;
+    }
+
+    private void cascade() {
+        if ((cursor & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            Entry entry = overflow;
+            overflow = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                place(entry);
+                entry = next;
+            }
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((cursor & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            int slot = (int) ((cursor >>> shift) & SLOT_MASK);
+            Entry entry = slots[level][slot];
+            slots[level][slot] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                levelCounts[level]--;
+                entry.prev = null;
+                entry.next = null;
+                place(entry);
+                entry = next;
+            }
+        }
+    }
+
+    // An entry lives on the lowest level whose parent slot it shares with the cursor
+    private void place(Entry entry) {
+        if (entry.tick <= cursor) {
+            entry.level = LEVEL_EXPIRED;
+            expired.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int parentShift = SLOT_BITS * (level + 1);
+            if ((entry.tick >>> parentShift) == (cursor >>> parentShift)) {
+                int slot = (int) ((entry.tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                entry.level = level;
+                entry.slot = slot;
+                entry.next = slots[level][slot];
+                if (entry.next != null) {
+                    entry.next.prev = entry;
+                }
+                slots[level][slot] = entry;
+                levelCounts[level]++;
+                return;
+            }
+        }
+        entry.level = LEVEL_OVERFLOW;
+        entry.next = overflow;
+        if (overflow != null) {
+            overflow.prev = entry;
+        }
+        overflow = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.level == LEVEL_OVERFLOW) {
+            overflow = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        if (entry.level != LEVEL_OVERFLOW) {
+            levelCounts[entry.level]--;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static long earliestTick(Entry head) {
+        long earliest = Long.MAX_VALUE;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            earliest = Math.min(earliest, entry.tick);
+        }
+        return earliest;
+    }
+
+    private static long ceilTick(long millis) {
+        return Math.floorDiv(millis + TICK_MS - 1, TICK_MS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.commutetimely;
+
+import com.dieam.reactnativepushnotification.modules.RNPushNotificationListenerService;
+
+// The push library's FCM service, gated on Firebase being initialized. A push can start
+// the process with nothing else running, and onCreate runs on the main thread, so Firebase
+// is initialized inline here rather than waited for.
+public class CommuteMessagingService extends RNPushNotificationListenerService {
+
+    @Override
+    public void onCreate() {
+        FirebaseStartup.initializeOnCallingThread(this);
+        super.onCreate();
+    }
+}
@@ -0,0 +1,158 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+
+// Second stage of a two-stage alarm: runs a few minutes before the planned departure,
+// pulls a fresh ETA from Mapbox and the current weather from Weatherbit, and moves the
+// final alarm and rewrites its message to match. Blocking, so call it off the main thread.
+public class CommuteRefresher {
+    private static final String TAG = "CommuteRefresher";
+
+    // Upper bounds per request; each request is also limited to what is left of the
+    // caller's deadline, so both requests together never outlast it
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 3000;
+    // Not worth starting a request with less time than this left
+    private static final long MIN_REQUEST_MS = 500;
+
+    private CommuteRefresher() {
+    }
+
+    // Returns whether the final alarm was updated; on any failure, or if the deadline
+    // (SystemClock.elapsedRealtime()) comes first, it is left as armed
+    public static boolean refresh(Context context, String alarmId, long deadline) {
+        AlarmScheduler scheduler = AlarmScheduler.getInstance(context);
+        RefreshPlanStore store = RefreshPlanStore.getInstance(context);
+        RefreshPlan plan = store.get(alarmId);
+        AlarmRecord alarm = AlarmRegistry.getInstance(context).get(alarmId);
+        if (plan == null || alarm == null) {
+            return false;
+        }
+
+        String mapboxToken = store.getMapboxToken();
+        String weatherbitKey = store.getWeatherbitKey();
+        if (mapboxToken == null || weatherbitKey == null) {
+            Log.w(TAG, "No API keys set, skipping refresh of " + alarmId);
+            return false;
+        }
+
+        try {
+            JSONObject route = fetchRoute(plan, mapboxToken, deadline);
+            long etaSeconds = Math.round(route.getDouble("duration"));
+            JSONObject weather = fetchWeather(plan, weatherbitKey, deadline);
+            JSONObject summary = weather.optJSONObject("weather");
+            String condition = summary != null ? summary.optString("description", "Unknown") : "Unknown";
+
+            int weatherDelay = LeaveTimeEngine.weatherDelaySeconds(
+                condition,
+                weather.optDouble("precip", 0),
+                weather.optDouble("wind_spd", 0)
+            );
+            // Arrival is the one this alarm was planned for, i.e. the first one after it
+            long arrival = LeaveTimeEngine.nextArrivalTime(plan.arrivalHour, plan.arrivalMinute, alarm.triggerTime);
+            long leaveTime = LeaveTimeEngine.leaveByTime(
+                arrival, etaSeconds, weatherDelay, LeaveTimeEngine.DEFAULT_BUFFER_MINUTES);
+
+            String message = "ETA: " + Math.round(etaSeconds / 60.0) + " mins ("
+                + getWeatherIcon(condition) + " " + condition + ")";
+            boolean updated = scheduler.applyRefresh(alarmId, leaveTime, message);
+            // Thumbnail rendered now, off the fire path, so the final alarm can show the route
+            JSONObject geometry = route.optJSONObject("geometry");
+            if (geometry != null) {
+                RouteThumbnailCache.getInstance(context).setRoute(alarmId, geometry.toString());
+            }
+            Log.i(TAG, "Refreshed " + alarmId + ": leave at " + leaveTime
+                + " (was " + alarm.triggerTime + ")");
+            return updated;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to refresh " + alarmId + ", keeping the planned alarm", e);
+            return false;
+        }
+    }
+
+    private static JSONObject fetchRoute(RefreshPlan plan, String accessToken, long deadline) throws Exception {
+        String coords = String.format(Locale.US, "%f,%f;%f,%f",
+            plan.originLongitude, plan.originLatitude,
+            plan.destinationLongitude, plan.destinationLatitude);
+        String url = "https://api.mapbox.com/directions/v5/mapbox/driving-traffic/" + coords
+            + "?alternatives=false&overview=simplified&geometries=geojson&steps=false&access_token=" + accessToken;
+
+        JSONArray routes = new JSONObject(get(url, deadline)).getJSONArray("routes");
+        if (routes.length() == 0) {
+            throw new IOException("Mapbox returned no routes");
+        }
+        return routes.getJSONObject(0);
+    }
+
+    private static JSONObject fetchWeather(RefreshPlan plan, String apiKey, long deadline) throws Exception {
+        String url = String.format(Locale.US, "https://api.weatherbit.io/v2.0/current?lat=%f&lon=%f&key=%s",
+            plan.destinationLatitude, plan.destinationLongitude, apiKey);
+
+        JSONArray data = new JSONObject(get(url, deadline)).getJSONArray("data");
+        if (data.length() == 0) {
+            throw new IOException("Weatherbit returned no data");
+        }
+        return data.getJSONObject(0);
+    }
+
+    private static String get(String url, long deadline) throws IOException {
+        long remaining = deadline - SystemClock.elapsedRealtime();
+        if (remaining < MIN_REQUEST_MS) {
+            throw new IOException("Out of time, " + remaining + "ms left");
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        // Connect and the first read share what is left
+        connection.setConnectTimeout((int) Math.min(CONNECT_TIMEOUT_MS, remaining / 2));
+        connection.setReadTimeout((int) Math.min(READ_TIMEOUT_MS, remaining / 2));
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status);
+            }
+            StringBuilder body = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (SystemClock.elapsedRealtime() > deadline) {
+                        throw new IOException("Deadline passed while reading the response");
+                    }
+                    body.append(line);
+                }
+            }
+            return body.toString();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Same mapping as getWeatherIcon in commute.ts
+    static String getWeatherIcon(String condition) {
+        String lowerCondition = condition.toLowerCase(Locale.ROOT);
+        if (lowerCondition.contains("sun") || lowerCondition.contains("clear")) {
+            return "☀️";
+        } else if (lowerCondition.contains("cloud")) {
+            return "☁️";
+        } else if (lowerCondition.contains("rain") || lowerCondition.contains("drizzle")) {
+            return "🌧️";
+        } else if (lowerCondition.contains("snow")) {
+            return "❄️";
+        } else if (lowerCondition.contains("storm") || lowerCondition.contains("thunder")) {
+            return "⛈️";
+        } else if (lowerCondition.contains("fog") || lowerCondition.contains("mist")) {
+            return "🌫️";
+        }
+        return "🌤️";
+    }
+}
@@ -0,0 +1,156 @@
+package com.commutetimely;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Optional ongoing notification that counts down to an alarm's departure time with a
+// chronometer and shows the latest ETA. It uses the alarm's own notification id, so each
+// update replaces it in place and the final alarm takes its slot when it fires. The
+// chronometer ticks on its own, so it is only re-posted when the content changes, and
+// never more often than MIN_UPDATE_INTERVAL_MS per alarm; a change inside that window is
+// held and posted when the window ends, so the countdown never stays on a stale time.
+public final class DepartureCountdown {
+    private static final String PREFS_NAME = "commute_departure_countdown";
+    private static final String KEY_ENABLED = "enabled";
+
+    static final long MIN_UPDATE_INTERVAL_MS = 30_000L;
+    // Left up briefly after departure in case the final alarm is late, then dropped
+    private static final long LINGER_MS = 5 * 60_000L;
+
+    // Last content posted per notification id, to skip redundant and too-frequent updates
+    private static final Map<Integer, String> lastContent = new HashMap<>();
+    private static final Map<Integer, Long> lastPostedAt = new HashMap<>();
+    // Newest alarm state that arrived inside the window, posted when the window ends
+    private static final Map<Integer, AlarmRecord> trailing = new HashMap<>();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    private DepartureCountdown() {
+    }
+
+    public static boolean isEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_ENABLED, false);
+    }
+
+    public static void setEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_ENABLED, enabled).apply();
+    }
+
+    // Posts or updates the countdown for an alarm; returns whether it was posted now. An
+    // update inside the rate-limit window is posted once the window ends instead.
+    public static boolean update(Context context, AlarmRecord alarm) {
+        long now = System.currentTimeMillis();
+        if (alarm.triggerTime <= now) {
+            return false;
+        }
+
+        int notificationId = AlarmRequestCodes.getInstance(context).get(alarm.id);
+        // Minute resolution: the chronometer already covers anything finer
+        String content = (alarm.triggerTime / 60_000L) + "|" + alarm.title + "|" + alarm.message;
+        synchronized (DepartureCountdown.class) {
+            if (content.equals(lastContent.get(notificationId))) {
+                trailing.remove(notificationId);
+                return false;
+            }
+            Long postedAt = lastPostedAt.get(notificationId);
+            if (postedAt != null && now - postedAt < MIN_UPDATE_INTERVAL_MS && now >= postedAt) {
+                if (trailing.put(notificationId, alarm) == null) {
+                    Context appContext = context.getApplicationContext();
+                    handler.postDelayed(() -> postTrailing(appContext, notificationId),
+                        postedAt + MIN_UPDATE_INTERVAL_MS - now);
+                }
+                return false;
+            }
+            trailing.remove(notificationId);
+            lastContent.put(notificationId, content);
+            lastPostedAt.put(notificationId, now);
+        }
+
+        NotificationChannels.ensureCreated(context);
+        NotificationManagerCompat.from(context).notify(notificationId, build(context, notificationId, alarm, now));
+        return true;
+    }
+
+    // Like update(), but only for a countdown that is currently showing
+    public static boolean updateIfShown(Context context, AlarmRecord alarm) {
+        int notificationId = AlarmRequestCodes.getInstance(context).get(alarm.id);
+        synchronized (DepartureCountdown.class) {
+            if (!lastContent.containsKey(notificationId)) {
+                return false;
+            }
+        }
+        return update(context, alarm);
+    }
+
+    // The countdown's slot was taken by the fired alarm or dismissed
+    public static synchronized void clear(int notificationId) {
+        lastContent.remove(notificationId);
+        lastPostedAt.remove(notificationId);
+        trailing.remove(notificationId);
+    }
+
+    private static void postTrailing(Context context, int notificationId) {
+        AlarmRecord alarm;
+        synchronized (DepartureCountdown.class) {
+            alarm = trailing.remove(notificationId);
+        }
+        // Skipped once the occurrence has fired or been cancelled
+        AlarmRecord current = alarm != null ? AlarmRegistry.getInstance(context).get(alarm.id) : null;
+        if (current != null && current.triggerTime == alarm.triggerTime) {
+            update(context, current);
+        }
+    }
+
+    private static Notification build(Context context, int notificationId, AlarmRecord alarm, long now) {
+        Intent appIntent = new Intent(context, MainActivity.class);
+        appIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+            context,
+            notificationId,
+            appIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Intent dismissIntent = new Intent(context, AlarmReceiver.class);
+        dismissIntent.setAction(AlarmReceiver.ACTION_DISMISS);
+        dismissIntent.putExtra(AlarmReceiver.EXTRA_NOTIFICATION_ID, notificationId);
+        PendingIntent dismiss = PendingIntent.getBroadcast(
+            context,
+            notificationId,
+            dismissIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        return new NotificationCompat.Builder(context, NotificationChannels.COMMUTE_COUNTDOWN)
+            .setSmallIcon(R.mipmap.ic_launcher)
+            .setContentTitle(alarm.title)
+            .setContentText(alarm.message)
+            .setCategory(NotificationCompat.CATEGORY_NAVIGATION)
+            .setPriority(NotificationCompat.PRIORITY_LOW)
+            .setOngoing(true)
+            .setOnlyAlertOnce(true)
+            .setSilent(true)
+            .setWhen(alarm.triggerTime)
+            .setShowWhen(true)
+            .setUsesChronometer(true)
+            .setChronometerCountDown(true)
+            .setTimeoutAfter(alarm.triggerTime - now + LINGER_MS)
+            .setContentIntent(contentIntent)
+            .addAction(0, "Dismiss", dismiss)
+            .build();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
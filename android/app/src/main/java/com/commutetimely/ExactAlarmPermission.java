@@ -0,0 +1,62 @@
+package com.commutetimely;
+
+import android.app.AlarmManager;
+import android.content.Context;
+import android.os.Build;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Process-wide cache of the exact-alarm permission. It is queried from AlarmManager
+// once and then only refreshed when ExactAlarmPermissionReceiver reports a change;
+// a revocation kills the process, so the cache can never outlive a grant.
+public final class ExactAlarmPermission {
+    public interface Listener {
+        void onExactAlarmPermissionChanged(boolean granted);
+    }
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static volatile Boolean granted;
+
+    private ExactAlarmPermission() {
+    }
+
+    public static boolean isGranted(Context context) {
+        Boolean cached = granted;
+        if (cached == null) {
+            cached = query(context);
+            granted = cached;
+        }
+        return cached;
+    }
+
+    // Re-reads the permission and notifies listeners if it changed
+    public static boolean refresh(Context context) {
+        boolean current = query(context);
+        Boolean previous = granted;
+        granted = current;
+        if (previous == null || previous != current) {
+            for (Listener listener : listeners) {
+                listener.onExactAlarmPermissionChanged(current);
+            }
+        }
+        return current;
+    }
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static boolean query(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            return alarmManager != null && alarmManager.canScheduleExactAlarms();
+        }
+        // For Android versions below 12, exact alarms are allowed by default
+        return true;
+    }
+}
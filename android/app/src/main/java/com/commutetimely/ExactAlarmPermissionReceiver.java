@@ -0,0 +1,25 @@
+package com.commutetimely;
+
+import android.app.AlarmManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+// Refreshes the cached exact-alarm permission when the user grants it in settings.
+// AlarmScheduler listens for the change and upgrades any inexact wakeup to exact.
+public class ExactAlarmPermissionReceiver extends BroadcastReceiver {
+    private static final String TAG = "ExactAlarmPermission";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!AlarmManager.ACTION_SCHEDULE_EXACT_ALARM_PERMISSION_STATE_CHANGED.equals(intent.getAction())) {
+            return;
+        }
+
+        // Make sure the scheduler exists so it hears about the change
+        AlarmScheduler.getInstance(context);
+        boolean granted = ExactAlarmPermission.refresh(context.getApplicationContext());
+        Log.i(TAG, "Exact alarm permission " + (granted ? "granted" : "denied"));
+    }
+}
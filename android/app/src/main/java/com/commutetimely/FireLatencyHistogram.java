@@ -0,0 +1,125 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// How late alarm wakeups are delivered relative to the time they were armed for.
+// Samples go into fixed buckets with atomic increments, so recording never blocks;
+// the counts are persisted so the distribution accumulates across processes.
+public class FireLatencyHistogram {
+    private static final String PREFS_NAME = "commute_alarm_latency";
+    private static final String KEY_BUCKETS = "buckets";
+    private static final String KEY_MAX = "max";
+
+    // Upper bounds (inclusive) in millis; the last bucket takes everything beyond
+    static final long[] BUCKET_BOUNDS_MS = {
+        100, 250, 500, 1_000, 2_000, 5_000, 10_000, 30_000,
+        60_000, 120_000, 300_000, 600_000, 900_000, 1_800_000, 3_600_000,
+    };
+
+    private static FireLatencyHistogram instance;
+
+    private final SharedPreferences prefs;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private FireLatencyHistogram(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String stored = prefs.getString(KEY_BUCKETS, null);
+        if (stored != null) {
+            String[] parts = stored.split(",");
+            for (int i = 0; i < parts.length && i < counts.length(); i++) {
+                try {
+                    counts.set(i, Long.parseLong(parts[i]));
+                } catch (NumberFormatException e) {
+                    counts.set(i, 0);
+                }
+            }
+        }
+        maxLatency.set(prefs.getLong(KEY_MAX, 0L));
+    }
+
+    public static synchronized FireLatencyHistogram getInstance(Context context) {
+        if (instance == null) {
+            instance = new FireLatencyHistogram(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public void record(long latencyMillis) {
+        long latency = Math.max(0L, latencyMillis);
+        counts.incrementAndGet(bucketFor(latency));
+
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+        persist();
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getMax() {
+        return maxLatency.get();
+    }
+
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public int getBucketCount() {
+        return counts.length();
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100), or -1 with no samples.
+    // Samples beyond the last bound report the largest latency seen.
+    public long getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return -1L;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MS[i], getMax());
+            }
+        }
+        return getMax();
+    }
+
+    private static int bucketFor(long latency) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (latency <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    private void persist() {
+        StringBuilder buckets = new StringBuilder();
+        for (int i = 0; i < counts.length(); i++) {
+            if (i > 0) {
+                buckets.append(',');
+            }
+            buckets.append(counts.get(i));
+        }
+        // apply() is flushed before the receiver's process can be torn down
+        prefs.edit()
+            .putString(KEY_BUCKETS, buckets.toString())
+            .putLong(KEY_MAX, maxLatency.get())
+            .apply();
+    }
+}
@@ -0,0 +1,34 @@
+package com.commutetimely;
+
+import com.facebook.react.ReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.uimanager.ViewManager;
+
+import java.util.List;
+
+// Wraps a package whose modules call into Firebase, holding back their creation until
+// FirebaseStartup has finished. Modules are created on the React context thread, so
+// the main thread never waits here.
+public class FirebaseGatedPackage implements ReactPackage {
+    // react-native-push-notification asks FirebaseMessaging for the device token
+    static final String PUSH_NOTIFICATION_PACKAGE =
+        "com.dieam.reactnativepushnotification.ReactNativePushNotificationPackage";
+
+    private final ReactPackage delegate;
+
+    public FirebaseGatedPackage(ReactPackage delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
+        FirebaseStartup.awaitReady(reactContext);
+        return delegate.createNativeModules(reactContext);
+    }
+
+    @Override
+    public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
+        return delegate.createViewManagers(reactContext);
+    }
+}
@@ -0,0 +1,100 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.firebase.FirebaseApp;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Owns Firebase initialization now that FirebaseInitProvider is removed from the manifest.
+// With DEFER_FIREBASE_INIT it runs once on a background thread, started after the first
+// frame or by the first caller that needs it; callers that touch Firebase go through
+// awaitReady(), which blocks only until that single initialization has finished.
+public final class FirebaseStartup {
+    private static final String TAG = "FirebaseStartup";
+    // Firebase init is tens of millis; this only guards against a wedged thread
+    private static final long READY_TIMEOUT_MS = 10_000L;
+
+    private static final CountDownLatch ready = new CountDownLatch(1);
+    private static boolean started;
+
+    private FirebaseStartup() {
+    }
+
+    // Starts initialization on a background thread; later calls are no-ops
+    public static void start(Context context) {
+        Context appContext = context.getApplicationContext();
+        synchronized (FirebaseStartup.class) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        Thread thread = new Thread(() -> initialize(appContext), "firebase-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Initializes on the calling thread; used when init is not deferred
+    public static void initializeNow(Context context) {
+        synchronized (FirebaseStartup.class) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        initialize(context.getApplicationContext());
+    }
+
+    // For callers that need Firebase immediately on the main thread, such as the service
+    // a push message starts: initializes right here instead of waiting on the background
+    // thread. FirebaseApp serializes initialization, so if that thread is already running
+    // this costs no more than the init itself.
+    public static void initializeOnCallingThread(Context context) {
+        if (isReady()) {
+            return;
+        }
+        synchronized (FirebaseStartup.class) {
+            started = true;
+        }
+        initialize(context.getApplicationContext());
+    }
+
+    // Readiness barrier for anything that uses Firebase: starts initialization if nobody
+    // has yet, then waits for it. Returns whether Firebase is ready.
+    public static boolean awaitReady(Context context) {
+        if (isReady()) {
+            return true;
+        }
+        start(context);
+        try {
+            if (!ready.await(READY_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Firebase still initializing after " + READY_TIMEOUT_MS + "ms");
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    public static boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    private static void initialize(Context context) {
+        StartupTrace.Phase phase = StartupTrace.begin("FirebaseApp.initializeApp");
+        try {
+            FirebaseApp.initializeApp(context);
+        } catch (Exception e) {
+            // Push stays unavailable, but callers must not block on it forever
+            Log.e(TAG, "Failed to initialize Firebase", e);
+        } finally {
+            StartupTrace.end(phase);
+            ready.countDown();
+        }
+    }
+}
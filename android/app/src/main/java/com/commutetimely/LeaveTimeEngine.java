@@ -0,0 +1,94 @@
+package com.commutetimely;
+
+// Native port of the leave-time rules in commute.ts (calculateWeatherDelay and
+// calculateLeaveTime) and departure.ts (computeLeaveByTime), so a receiver can
+// recompute a departure without starting JS. Works on primitives only and, apart
+// from resolving the arrival through TriggerCalculator, does not allocate, which keeps
+// it cheap enough to call straight from onReceive.
+public final class LeaveTimeEngine {
+    // Same defaults as DEFAULT_WEATHER_DELAYS, in minutes
+    public static final int DELAY_RAIN_MINUTES = 5;
+    public static final int DELAY_SNOW_MINUTES = 15;
+    public static final int DELAY_STORM_MINUTES = 20;
+    public static final int DELAY_FOG_MINUTES = 10;
+    public static final int DELAY_HEAVY_RAIN_MINUTES = 10;
+    public static final int DELAY_HIGH_WIND_MINUTES = 5;
+
+    public static final int DEFAULT_BUFFER_MINUTES = 5;
+
+    private static final double HIGH_WIND_SPEED = 15; // m/s
+
+    private LeaveTimeEngine() {
+    }
+
+    // Weather delay in seconds for a description and forecast, matching calculateWeatherDelay
+    public static int weatherDelaySeconds(String condition, double precipitationProbability, double windSpeed) {
+        int delayMinutes = 0;
+
+        // Precipitation-based delays
+        if (precipitationProbability > 70) {
+            if (containsIgnoreCase(condition, "snow") || containsIgnoreCase(condition, "blizzard")) {
+                delayMinutes = DELAY_SNOW_MINUTES;
+            } else if (containsIgnoreCase(condition, "storm") || containsIgnoreCase(condition, "thunder")) {
+                delayMinutes = DELAY_STORM_MINUTES;
+            } else if (containsIgnoreCase(condition, "heavy rain") || precipitationProbability > 90) {
+                delayMinutes = DELAY_HEAVY_RAIN_MINUTES;
+            } else if (containsIgnoreCase(condition, "rain") || containsIgnoreCase(condition, "drizzle")) {
+                delayMinutes = DELAY_RAIN_MINUTES;
+            }
+        }
+
+        // Visibility-based delays
+        if (containsIgnoreCase(condition, "fog") || containsIgnoreCase(condition, "mist")) {
+            delayMinutes = Math.max(delayMinutes, DELAY_FOG_MINUTES);
+        }
+
+        // Wind-based delays
+        if (windSpeed > HIGH_WIND_SPEED) {
+            delayMinutes += DELAY_HIGH_WIND_MINUTES;
+        }
+
+        return delayMinutes * 60;
+    }
+
+    // Epoch millis to leave by to make arrivalTime, matching computeLeaveByTime
+    public static long leaveByTime(long arrivalTime, long etaSeconds, long weatherDelaySeconds, int bufferMinutes) {
+        long totalSeconds = etaSeconds + weatherDelaySeconds + bufferMinutes * 60L;
+        return arrivalTime - totalSeconds * 1000L;
+    }
+
+    // Next local occurrence of HH:MM at or after now; earlier today rolls over to tomorrow.
+    // Same zone and DST gap/overlap rules as the alarms themselves (TriggerCalculator).
+    public static long nextArrivalTime(int hour, int minute, long now) {
+        return TriggerCalculator.nextTrigger(hour, minute, 0, null, now - 1);
+    }
+
+    // Full calculateLeaveTime: arrival HH:MM, traffic ETA and current weather to a leave time
+    public static long calculateLeaveTime(
+        int arrivalHour,
+        int arrivalMinute,
+        long etaSeconds,
+        String condition,
+        double precipitationProbability,
+        double windSpeed,
+        long now
+    ) {
+        long arrival = nextArrivalTime(arrivalHour, arrivalMinute, now);
+        int weatherDelay = weatherDelaySeconds(condition, precipitationProbability, windSpeed);
+        return leaveByTime(arrival, etaSeconds, weatherDelay, DEFAULT_BUFFER_MINUTES);
+    }
+
+    // String.contains on a lower-cased copy, without making the copy
+    private static boolean containsIgnoreCase(String haystack, String needle) {
+        if (haystack == null) {
+            return false;
+        }
+        int max = haystack.length() - needle.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
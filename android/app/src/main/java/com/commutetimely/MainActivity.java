@@ -1,5 +1,8 @@
 package com.commutetimely;
 
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewTreeObserver;
 import com.facebook.react.ReactActivity;
 import com.facebook.react.ReactActivityDelegate;
 import com.facebook.react.defaults.DefaultNewArchitectureEntryPoint;
@@ -7,6 +10,17 @@ import com.facebook.react.defaults.DefaultReactActivityDelegate;
 
 public class MainActivity extends ReactActivity {
 
+  @Override
+  protected void onCreate(Bundle savedInstanceState) {
+    StartupTrace.Phase phase = StartupTrace.begin("MainActivity.onCreate");
+    try {
+      super.onCreate(savedInstanceState);
+    } finally {
+      StartupTrace.end(phase);
+    }
+    watchFirstFrame();
+  }
+
   @Override
   protected String getMainComponentName() {
     return "CommuteTimely";
@@ -14,9 +28,32 @@ public class MainActivity extends ReactActivity {
 
   @Override
   protected ReactActivityDelegate createReactActivityDelegate() {
+    // The Fabric flag is only set once the application has run its deferred load(), which a
+    // process started light for a broadcast has not done yet
+    ((MainApplication) getApplication()).ensureFullyInitialized();
     return new DefaultReactActivityDelegate(
         this,
         getMainComponentName(),
         DefaultNewArchitectureEntryPoint.getFabricEnabled());
   }
+
+  // Marks the first draw of the window, then starts deferred work and dumps the startup report
+  private void watchFirstFrame() {
+    View decorView = getWindow().getDecorView();
+    ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+      @Override
+      public void onDraw() {
+        StartupTrace.mark("first_frame");
+        // Listeners can't be removed from inside onDraw
+        decorView.post(() -> {
+          decorView.getViewTreeObserver().removeOnDrawListener(this);
+          if (BuildConfig.DEFER_FIREBASE_INIT) {
+            FirebaseStartup.start(MainActivity.this);
+          }
+          StartupTrace.dump(false);
+        });
+      }
+    };
+    decorView.getViewTreeObserver().addOnDrawListener(listener);
+  }
 }
@@ -1,14 +1,15 @@
 package com.commutetimely;
 
 import android.app.Application;
+import android.os.SystemClock;
 import com.facebook.react.PackageList;
 import com.facebook.react.ReactApplication;
+import com.facebook.react.ReactInstanceManager;
 import com.facebook.react.ReactNativeHost;
 import com.facebook.react.ReactPackage;
 import com.facebook.react.defaults.DefaultNewArchitectureEntryPoint;
 import com.facebook.react.defaults.DefaultReactNativeHost;
 import com.facebook.soloader.SoLoader;
-import com.google.firebase.FirebaseApp;
 import java.util.List;
 
 public class MainApplication extends Application implements ReactApplication {
@@ -21,10 +22,34 @@ public class MainApplication extends Application implements ReactApplication {
 
     @Override
     protected List<ReactPackage> getPackages() {
-      List<ReactPackage> packages = new PackageList(this).getPackages();
-      // Add our custom AlarmManager package
-      packages.add(new AlarmManagerPackage());
-      return packages;
+      StartupTrace.Phase phase = StartupTrace.begin("PackageList");
+      try {
+        List<ReactPackage> packages = new PackageList(this).getPackages();
+        // Push modules wait for Firebase, which may still be starting in the background
+        for (int i = 0; i < packages.size(); i++) {
+          if (FirebaseGatedPackage.PUSH_NOTIFICATION_PACKAGE.equals(packages.get(i).getClass().getName())) {
+            packages.set(i, new FirebaseGatedPackage(packages.get(i)));
+          }
+        }
+        // Add our custom AlarmManager package; created lazily, as a TurboModule under the new architecture
+        packages.add(new AlarmManagerPackage());
+        return packages;
+      } finally {
+        StartupTrace.end(phase);
+      }
+    }
+
+    @Override
+    protected ReactInstanceManager createReactInstanceManager() {
+      ReactInstanceManager manager;
+      StartupTrace.Phase phase = StartupTrace.begin("ReactInstanceManager.create");
+      try {
+        manager = super.createReactInstanceManager();
+      } finally {
+        StartupTrace.end(phase);
+      }
+      manager.addReactInstanceEventListener(context -> StartupTrace.mark("react_context_ready"));
+      return manager;
     }
 
     @Override
@@ -43,18 +68,81 @@ public class MainApplication extends Application implements ReactApplication {
     }
   };
 
+  private volatile boolean mFullyInitialized;
+
   @Override
   public ReactNativeHost getReactNativeHost() {
+    // A light process loads React here, on first use by an activity, service or receiver
+    ensureFullyInitialized();
     return mReactNativeHost;
   }
 
   @Override
   public void onCreate() {
     super.onCreate();
-    SoLoader.init(this, /* native exopackage */ false);
-    FirebaseApp.initializeApp(this);
-    if (BuildConfig.IS_NEW_ARCHITECTURE_ENABLED) {
-      DefaultNewArchitectureEntryPoint.load();
+    StartupTrace.Phase phase = StartupTrace.begin("Application.onCreate");
+    try {
+      // Creates all notification channels once per app version; a flag check afterwards
+      NotificationChannels.ensureCreated(this);
+      // Alarm, boot and notification-action broadcasts only need the native alarm classes
+      if (StartupMode.isUserVisibleLaunch()) {
+        ensureFullyInitialized();
+        if (BuildConfig.PREWARM_REACT_INSTANCE) {
+          prewarmReactInstance();
+        }
+      } else {
+        StartupMode.recordLightStart(this);
+      }
+    } finally {
+      StartupTrace.end(phase);
+    }
+  }
+
+  // Starts context creation now, overlapping bundle load with activity inflation. The
+  // work runs on React's own background thread; MainActivity's delegate then attaches
+  // to the instance that is already being created instead of starting one.
+  private void prewarmReactInstance() {
+    StartupTrace.Phase phase = StartupTrace.begin("ReactInstance.prewarm");
+    try {
+      ReactInstanceManager manager = mReactNativeHost.getReactInstanceManager();
+      if (!manager.hasStartedCreatingInitialContext()) {
+        manager.createReactContextInBackground();
+      }
+    } finally {
+      StartupTrace.end(phase);
+    }
+  }
+
+  // Loads SoLoader, Firebase and the new architecture if this process started light
+  void ensureFullyInitialized() {
+    if (mFullyInitialized) {
+      return;
+    }
+    synchronized (this) {
+      if (mFullyInitialized) {
+        return;
+      }
+      long start = SystemClock.uptimeMillis();
+      StartupTrace.Phase phase = StartupTrace.begin("SoLoader.init");
+      try {
+        SoLoader.init(this, /* native exopackage */ false);
+      } finally {
+        StartupTrace.end(phase);
+      }
+      // Deferred init is started by MainActivity after first frame, or by the first user
+      if (!BuildConfig.DEFER_FIREBASE_INIT) {
+        FirebaseStartup.initializeNow(this);
+      }
+      if (BuildConfig.IS_NEW_ARCHITECTURE_ENABLED) {
+        phase = StartupTrace.begin("NewArchitecture.load");
+        try {
+          DefaultNewArchitectureEntryPoint.load();
+        } finally {
+          StartupTrace.end(phase);
+        }
+      }
+      StartupMode.recordFullInit(this, SystemClock.uptimeMillis() - start);
+      mFullyInitialized = true;
     }
   }
 }
@@ -0,0 +1,99 @@
+package com.commutetimely;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Every notification channel the app posts to, created in one batch the first time a
+// given app version runs. Channel creation is idempotent on the platform side, but it
+// still costs a binder call, so the alarm-fire path only checks a flag.
+public final class NotificationChannels {
+    // Posted by AlarmReceiver for native exact alarms
+    public static final String COMMUTE_ALARMS = "commute-alarms";
+    // Used by the react-native-push-notification fallback in JS
+    public static final String COMMUTE_REMINDER = "commute-reminder";
+    // Ongoing departure countdown; low importance so in-place updates never alert
+    public static final String COMMUTE_COUNTDOWN = "commute-countdown";
+
+    private static final String PREFS_NAME = "commute_notification_channels";
+    private static final String KEY_VERSION = "createdForVersion";
+    private static final String KEY_REVISION = "channelSetRevision";
+
+    // Bump when a channel is added or changed, so builds sharing a versionCode pick it up
+    private static final int CHANNEL_SET_REVISION = 2;
+
+    private static volatile boolean ensured;
+
+    private NotificationChannels() {
+    }
+
+    public static void ensureCreated(Context context) {
+        if (ensured) {
+            return;
+        }
+        synchronized (NotificationChannels.class) {
+            if (ensured) {
+                return;
+            }
+            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            // Re-created after an upgrade in case a channel was added or changed
+            if (prefs.getInt(KEY_VERSION, -1) != BuildConfig.VERSION_CODE
+                || prefs.getInt(KEY_REVISION, -1) != CHANNEL_SET_REVISION) {
+                createChannels(context);
+                prefs.edit()
+                    .putInt(KEY_VERSION, BuildConfig.VERSION_CODE)
+                    .putInt(KEY_REVISION, CHANNEL_SET_REVISION)
+                    .apply();
+            }
+            ensured = true;
+        }
+    }
+
+    private static void createChannels(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
+        if (notificationManager == null) {
+            return;
+        }
+
+        List<NotificationChannel> channels = new ArrayList<>();
+
+        NotificationChannel alarms = new NotificationChannel(
+            COMMUTE_ALARMS,
+            "Commute Alarms",
+            NotificationManager.IMPORTANCE_HIGH
+        );
+        alarms.setDescription("Notifications for commute reminders");
+        alarms.enableVibration(true);
+        alarms.setVibrationPattern(new long[]{0, 1000, 500, 1000});
+        alarms.enableLights(true);
+        channels.add(alarms);
+
+        // Same settings ensureDefaultChannel used to pass to PushNotification.createChannel
+        NotificationChannel reminder = new NotificationChannel(
+            COMMUTE_REMINDER,
+            "Commute Reminder",
+            NotificationManager.IMPORTANCE_HIGH
+        );
+        reminder.enableVibration(true);
+        channels.add(reminder);
+
+        NotificationChannel countdown = new NotificationChannel(
+            COMMUTE_COUNTDOWN,
+            "Departure Countdown",
+            NotificationManager.IMPORTANCE_LOW
+        );
+        countdown.setDescription("Live countdown to your next departure");
+        countdown.setShowBadge(false);
+        channels.add(countdown);
+
+        notificationManager.createNotificationChannels(channels);
+    }
+}
@@ -0,0 +1,69 @@
+package com.commutetimely;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// What the native refresh needs to recompute a commute alarm without JS: the route
+// endpoints, the HH:MM the user wants to arrive, and how long before the planned
+// departure the refresh should run.
+public class RefreshPlan {
+    public final String alarmId;
+    public final double originLatitude;
+    public final double originLongitude;
+    public final double destinationLatitude;
+    public final double destinationLongitude;
+    public final int arrivalHour;
+    public final int arrivalMinute;
+    public final int leadMinutes;
+
+    public RefreshPlan(
+        String alarmId,
+        double originLatitude,
+        double originLongitude,
+        double destinationLatitude,
+        double destinationLongitude,
+        int arrivalHour,
+        int arrivalMinute,
+        int leadMinutes
+    ) {
+        this.alarmId = alarmId;
+        this.originLatitude = originLatitude;
+        this.originLongitude = originLongitude;
+        this.destinationLatitude = destinationLatitude;
+        this.destinationLongitude = destinationLongitude;
+        this.arrivalHour = arrivalHour;
+        this.arrivalMinute = arrivalMinute;
+        this.leadMinutes = leadMinutes;
+    }
+
+    public long leadMillis() {
+        return leadMinutes * 60_000L;
+    }
+
+    public String toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("alarmId", alarmId);
+        json.put("originLatitude", originLatitude);
+        json.put("originLongitude", originLongitude);
+        json.put("destinationLatitude", destinationLatitude);
+        json.put("destinationLongitude", destinationLongitude);
+        json.put("arrivalHour", arrivalHour);
+        json.put("arrivalMinute", arrivalMinute);
+        json.put("leadMinutes", leadMinutes);
+        return json.toString();
+    }
+
+    public static RefreshPlan fromJson(String value) throws JSONException {
+        JSONObject json = new JSONObject(value);
+        return new RefreshPlan(
+            json.getString("alarmId"),
+            json.getDouble("originLatitude"),
+            json.getDouble("originLongitude"),
+            json.getDouble("destinationLatitude"),
+            json.getDouble("destinationLongitude"),
+            json.getInt("arrivalHour"),
+            json.getInt("arrivalMinute"),
+            json.getInt("leadMinutes")
+        );
+    }
+}
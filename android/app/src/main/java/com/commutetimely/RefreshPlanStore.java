@@ -0,0 +1,83 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Persisted refresh plans keyed by alarm id, plus the API keys the native refresh
+// uses. A plan outlives the alarm it was set for, so every later occurrence of that
+// alarm is refreshed too until the plan is cleared.
+public class RefreshPlanStore {
+    private static final String TAG = "RefreshPlanStore";
+    private static final String PREFS_NAME = "commute_refresh_plans";
+    private static final String KEY_MAPBOX_TOKEN = "__mapbox_token";
+    private static final String KEY_WEATHERBIT_KEY = "__weatherbit_key";
+
+    private static RefreshPlanStore instance;
+
+    private final SharedPreferences prefs;
+    private final Map<String, RefreshPlan> plans = new HashMap<>();
+
+    private RefreshPlanStore(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            Object value = entry.getValue();
+            if (entry.getKey().startsWith("__") || !(value instanceof String)) {
+                continue;
+            }
+            try {
+                RefreshPlan plan = RefreshPlan.fromJson((String) value);
+                plans.put(plan.alarmId, plan);
+            } catch (JSONException e) {
+                Log.w(TAG, "Dropping unreadable refresh plan " + entry.getKey(), e);
+                prefs.edit().remove(entry.getKey()).apply();
+            }
+        }
+    }
+
+    public static synchronized RefreshPlanStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new RefreshPlanStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public synchronized void put(RefreshPlan plan) {
+        try {
+            prefs.edit().putString(plan.alarmId, plan.toJson()).apply();
+            plans.put(plan.alarmId, plan);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to persist refresh plan " + plan.alarmId, e);
+        }
+    }
+
+    public synchronized void remove(String alarmId) {
+        if (plans.remove(alarmId) != null) {
+            prefs.edit().remove(alarmId).apply();
+        }
+    }
+
+    public synchronized RefreshPlan get(String alarmId) {
+        return plans.get(alarmId);
+    }
+
+    public synchronized void setApiKeys(String mapboxToken, String weatherbitKey) {
+        prefs.edit()
+            .putString(KEY_MAPBOX_TOKEN, mapboxToken)
+            .putString(KEY_WEATHERBIT_KEY, weatherbitKey)
+            .apply();
+    }
+
+    public String getMapboxToken() {
+        return prefs.getString(KEY_MAPBOX_TOKEN, null);
+    }
+
+    public String getWeatherbitKey() {
+        return prefs.getString(KEY_WEATHERBIT_KEY, null);
+    }
+}
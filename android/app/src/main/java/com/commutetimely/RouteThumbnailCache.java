@@ -0,0 +1,163 @@
+package com.commutetimely;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+// On-disk cache of rendered route thumbnails, one PNG per distinct route geometry.
+// Thumbnails are rendered when a route is set (from JS or a native refresh), never on
+// the alarm-fire path, which only decodes the cached file into a pooled bitmap.
+// Least recently used files are evicted once the directory exceeds MAX_CACHE_BYTES.
+public class RouteThumbnailCache {
+    private static final String TAG = "RouteThumbnailCache";
+    private static final String PREFS_NAME = "commute_route_thumbnails";
+    private static final String DIR_NAME = "route_thumbnails";
+    private static final long MAX_CACHE_BYTES = 2L * 1024 * 1024;
+
+    private static RouteThumbnailCache instance;
+
+    private final SharedPreferences prefs;
+    private final File directory;
+
+    private RouteThumbnailCache(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        directory = new File(context.getCacheDir(), DIR_NAME);
+    }
+
+    public static synchronized RouteThumbnailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new RouteThumbnailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Associates a GeoJSON LineString with an alarm, rendering it unless already cached
+    public synchronized boolean setRoute(String alarmId, String geoJson) {
+        String hash = hash(geoJson);
+        File file = fileFor(hash);
+        if (file.exists()) {
+            file.setLastModified(System.currentTimeMillis());
+        } else {
+            double[] points = RouteThumbnailRenderer.parseLineString(geoJson);
+            if (points == null) {
+                Log.w(TAG, "Ignoring unusable route geometry for " + alarmId);
+                return false;
+            }
+            if (!write(file, points)) {
+                return false;
+            }
+            trim();
+        }
+        prefs.edit().putString(alarmId, hash).apply();
+        return true;
+    }
+
+    public synchronized void remove(String alarmId) {
+        // The file stays until evicted; another alarm may share the same route
+        prefs.edit().remove(alarmId).apply();
+    }
+
+    // Decodes the alarm's thumbnail into a pooled bitmap, or null if there is none.
+    // The caller hands it back with RouteThumbnailRenderer.release() once posted.
+    public Bitmap load(String alarmId) {
+        String hash = prefs.getString(alarmId, null);
+        if (hash == null) {
+            return null;
+        }
+        File file = fileFor(hash);
+        if (!file.exists()) {
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = RouteThumbnailRenderer.acquire();
+        try {
+            Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+            if (bitmap == null) {
+                RouteThumbnailRenderer.release(options.inBitmap);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // Pooled bitmap didn't fit (e.g. a file from an older size); decode fresh
+            RouteThumbnailRenderer.release(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        }
+    }
+
+    private boolean write(File file, double[] points) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Unable to create " + directory);
+            return false;
+        }
+        Bitmap bitmap = RouteThumbnailRenderer.render(points);
+        // Written under a temporary name so a reader never sees a partial PNG
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write route thumbnail", e);
+            temp.delete();
+            return false;
+        } finally {
+            RouteThumbnailRenderer.release(bitmap);
+        }
+        return temp.renameTo(file);
+    }
+
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_CACHE_BYTES) {
+            return;
+        }
+        // Oldest access first
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= MAX_CACHE_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    private File fileFor(String hash) {
+        return new File(directory, hash + ".png");
+    }
+
+    private static String hash(String geoJson) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(geoJson.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is always available on Android
+            return Integer.toHexString(geoJson.hashCode());
+        }
+    }
+}
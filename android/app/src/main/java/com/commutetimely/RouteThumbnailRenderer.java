@@ -0,0 +1,140 @@
+package com.commutetimely;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+
+// Rasterizes a route polyline into a small notification-sized bitmap, entirely offline:
+// the GeoJSON LineString from Mapbox is projected to Web Mercator and fitted to the frame.
+// Bitmaps come from a tiny pool and must be handed back with release() once used.
+public final class RouteThumbnailRenderer {
+    // 2:1 matches how BigPictureStyle crops on most devices
+    static final int WIDTH = 512;
+    static final int HEIGHT = 256;
+
+    private static final int PADDING = 24;
+    // Enough detail for a thumbnail; longer routes are decimated to keep rendering cheap
+    private static final int MAX_POINTS = 400;
+    private static final int POOL_SIZE = 2;
+
+    private static final ArrayDeque<Bitmap> pool = new ArrayDeque<>(POOL_SIZE);
+
+    private RouteThumbnailRenderer() {
+    }
+
+    public static synchronized Bitmap acquire() {
+        Bitmap bitmap = pool.poll();
+        return bitmap != null ? bitmap : Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    public static synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if (pool.size() < POOL_SIZE && bitmap.isMutable()
+            && bitmap.getWidth() == WIDTH && bitmap.getHeight() == HEIGHT) {
+            pool.offer(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    // Flat [lng0, lat0, lng1, lat1, ...] from a GeoJSON LineString, or null if unusable
+    public static double[] parseLineString(String geoJson) {
+        try {
+            JSONArray coordinates = new JSONObject(geoJson).getJSONArray("coordinates");
+            int count = coordinates.length();
+            if (count < 2) {
+                return null;
+            }
+            int stride = Math.max(1, (count + MAX_POINTS - 1) / MAX_POINTS);
+            int kept = (count - 1) / stride + 1;
+            // Always keep the destination as the last point
+            boolean endKept = (count - 1) % stride == 0;
+            double[] points = new double[(kept + (endKept ? 0 : 1)) * 2];
+            int p = 0;
+            for (int i = 0; i < count; i += stride) {
+                JSONArray point = coordinates.getJSONArray(i);
+                points[p++] = point.getDouble(0);
+                points[p++] = point.getDouble(1);
+            }
+            if (!endKept) {
+                JSONArray last = coordinates.getJSONArray(count - 1);
+                points[p++] = last.getDouble(0);
+                points[p] = last.getDouble(1);
+            }
+            return points;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    // Draws the route into a pooled bitmap; the caller owns it until release()
+    public static Bitmap render(double[] points) {
+        int count = points.length / 2;
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double x = Math.toRadians(points[i * 2]);
+            double y = Math.log(Math.tan(Math.PI / 4 + Math.toRadians(points[i * 2 + 1]) / 2));
+            xs[i] = (float) x;
+            ys[i] = (float) y;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+
+        // Uniform scale so the route keeps its shape, centred in the frame
+        double spanX = Math.max(maxX - minX, 1e-9);
+        double spanY = Math.max(maxY - minY, 1e-9);
+        double scale = Math.min((WIDTH - 2 * PADDING) / spanX, (HEIGHT - 2 * PADDING) / spanY);
+        double offsetX = (WIDTH - spanX * scale) / 2;
+        double offsetY = (HEIGHT - spanY * scale) / 2;
+
+        Path path = new Path();
+        for (int i = 0; i < count; i++) {
+            xs[i] = (float) (offsetX + (xs[i] - minX) * scale);
+            // Screen y grows downwards, mercator y grows north
+            ys[i] = (float) (HEIGHT - offsetY - (ys[i] - minY) * scale);
+            if (i == 0) {
+                path.moveTo(xs[i], ys[i]);
+            } else {
+                path.lineTo(xs[i], ys[i]);
+            }
+        }
+
+        Bitmap bitmap = acquire();
+        bitmap.eraseColor(Color.rgb(0xF2, 0xF4, 0xF7));
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint line = new Paint(Paint.ANTI_ALIAS_FLAG);
+        line.setStyle(Paint.Style.STROKE);
+        line.setStrokeCap(Paint.Cap.ROUND);
+        line.setStrokeJoin(Paint.Join.ROUND);
+        line.setStrokeWidth(10f);
+        line.setColor(Color.WHITE);
+        canvas.drawPath(path, line);
+        line.setStrokeWidth(6f);
+        line.setColor(Color.rgb(0x25, 0x63, 0xEB));
+        canvas.drawPath(path, line);
+
+        Paint dot = new Paint(Paint.ANTI_ALIAS_FLAG);
+        dot.setStyle(Paint.Style.FILL);
+        dot.setColor(Color.rgb(0x16, 0xA3, 0x4A));
+        canvas.drawCircle(xs[0], ys[0], 9f, dot);
+        dot.setColor(Color.rgb(0xDC, 0x26, 0x26));
+        canvas.drawCircle(xs[count - 1], ys[count - 1], 9f, dot);
+        return bitmap;
+    }
+}
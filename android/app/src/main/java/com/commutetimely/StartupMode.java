@@ -0,0 +1,58 @@
+package com.commutetimely;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+// Decides whether a new process needs the React and Firebase stack up front. Processes
+// started for alarm, boot or notification-action broadcasts only run the native alarm
+// classes, so MainApplication skips that init and loads it on first use of the React
+// host instead. The cost of the full init is recorded whenever it runs, so a light start
+// can log how much it avoided.
+public final class StartupMode {
+    private static final String TAG = "StartupMode";
+    private static final String PREFS_NAME = "commute_startup";
+    private static final String KEY_FULL_INIT_MS = "fullInitMs";
+    private static final String KEY_LIGHT_STARTS = "lightStarts";
+
+    private StartupMode() {
+    }
+
+    // An activity launch starts the process in the foreground; broadcast deliveries
+    // run at receiver or background importance
+    public static boolean isUserVisibleLaunch() {
+        ActivityManager.RunningAppProcessInfo info = new ActivityManager.RunningAppProcessInfo();
+        ActivityManager.getMyMemoryState(info);
+        return info.importance <= ActivityManager.RunningAppProcessInfo.IMPORTANCE_VISIBLE;
+    }
+
+    public static void recordFullInit(Context context, long durationMs) {
+        prefs(context).edit().putLong(KEY_FULL_INIT_MS, durationMs).apply();
+        Log.i(TAG, "Full init took " + durationMs + "ms");
+    }
+
+    public static void recordLightStart(Context context) {
+        SharedPreferences prefs = prefs(context);
+        long saved = prefs.getLong(KEY_FULL_INIT_MS, -1L);
+        int lightStarts = prefs.getInt(KEY_LIGHT_STARTS, 0) + 1;
+        prefs.edit().putInt(KEY_LIGHT_STARTS, lightStarts).apply();
+        // Estimated from the last full init measured on this device
+        Log.i(TAG, "Light start for background work, skipped "
+            + (saved >= 0 ? "~" + saved + "ms" : "an unmeasured") + " of React/Firebase init"
+            + " (" + lightStarts + " light starts so far)");
+    }
+
+    // Last measured full init, i.e. the cold-start time each light start saves, or -1
+    public static long getSavedPerLightStartMs(Context context) {
+        return prefs(context).getLong(KEY_FULL_INIT_MS, -1L);
+    }
+
+    public static int getLightStartCount(Context context) {
+        return prefs(context).getInt(KEY_LIGHT_STARTS, 0);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
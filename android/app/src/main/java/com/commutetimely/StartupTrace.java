@@ -0,0 +1,124 @@
+package com.commutetimely;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Cold-start phases of this process, each wrapped in a systrace section and timed on the
+// monotonic clock from process start. The report is readable from JS through the alarm
+// module and is dumped to logcat once after the first frame, one key=value line per entry:
+//   STARTUP phase=<name> start_ms=<offset> duration_ms=<length> thread=<name>
+//   STARTUP mark=<name> at_ms=<offset>
+// so per-release regressions can be tracked with `adb logcat -s StartupTrace`.
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    // Process start on the elapsedRealtime clock; API 23 falls back to when this class loaded
+    private static final long ORIGIN_NANOS = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+        ? Process.getStartElapsedRealtime() * 1_000_000L
+        : SystemClock.elapsedRealtimeNanos();
+
+    public static final class Phase {
+        public final String name;
+        public final String thread;
+        public final double startMs;
+        public double durationMs = -1;
+
+        Phase(String name, String thread, double startMs) {
+            this.name = name;
+            this.thread = thread;
+            this.startMs = startMs;
+        }
+    }
+
+    public static final class Mark {
+        public final String name;
+        public final double atMs;
+
+        Mark(String name, double atMs) {
+            this.name = name;
+            this.atMs = atMs;
+        }
+    }
+
+    private static final List<Phase> phases = new ArrayList<>();
+    private static final List<Mark> marks = new ArrayList<>();
+    private static boolean dumped;
+
+    private StartupTrace() {
+    }
+
+    // Opens a phase; must be closed with end() on the same thread, so call it in try/finally
+    public static Phase begin(String name) {
+        Trace.beginSection(name);
+        Phase phase = new Phase(name, Thread.currentThread().getName(), now());
+        synchronized (StartupTrace.class) {
+            phases.add(phase);
+        }
+        return phase;
+    }
+
+    public static void end(Phase phase) {
+        double end = now();
+        Trace.endSection();
+        synchronized (StartupTrace.class) {
+            phase.durationMs = end - phase.startMs;
+        }
+    }
+
+    // Records the first occurrence of a point-in-time event
+    public static void mark(String name) {
+        double at = now();
+        synchronized (StartupTrace.class) {
+            for (Mark mark : marks) {
+                if (mark.name.equals(name)) {
+                    return;
+                }
+            }
+            marks.add(new Mark(name, at));
+        }
+    }
+
+    public static synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    public static synchronized List<Mark> getMarks() {
+        return Collections.unmodifiableList(new ArrayList<>(marks));
+    }
+
+    // Writes the report to logcat; only the first call does anything unless forced
+    public static void dump(boolean force) {
+        List<String> lines = new ArrayList<>();
+        synchronized (StartupTrace.class) {
+            if (dumped && !force) {
+                return;
+            }
+            dumped = true;
+            lines.add(String.format(Locale.US, "STARTUP report version=%d sdk=%d",
+                BuildConfig.VERSION_CODE, Build.VERSION.SDK_INT));
+            for (Phase phase : phases) {
+                lines.add(String.format(Locale.US, "STARTUP phase=%s start_ms=%.2f duration_ms=%.2f thread=%s",
+                    phase.name, phase.startMs, phase.durationMs, phase.thread));
+            }
+            for (Mark mark : marks) {
+                lines.add(String.format(Locale.US, "STARTUP mark=%s at_ms=%.2f", mark.name, mark.atMs));
+            }
+        }
+        for (String line : lines) {
+            Log.i(TAG, line);
+        }
+    }
+
+    // Milliseconds since process start
+    static double now() {
+        return (SystemClock.elapsedRealtimeNanos() - ORIGIN_NANOS) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.commutetimely;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Turns a local HH:MM (optionally limited to some days of the week) into the epoch
+// millis of its next occurrence in a given zone. DST is resolved explicitly: a time
+// inside a spring-forward gap fires the moment the gap ends (02:30 -> 03:00), and a
+// time repeated by a fall-back overlap fires once, at its first occurrence.
+// Zone rules are looked up once per zone id and cached for the life of the process.
+public final class TriggerCalculator {
+    private static final ConcurrentHashMap<String, ZoneRules> rulesCache = new ConcurrentHashMap<>();
+
+    // ZoneId.systemDefault() clones the default TimeZone on every call
+    private static volatile ZoneId defaultZone = ZoneId.systemDefault();
+
+    private TriggerCalculator() {
+    }
+
+    // First occurrence strictly after the given time; daysMask as in AlarmRecurrence
+    // (bit 0 = Sunday), 0 meaning any day. Returns -1 for an unknown zone.
+    public static long nextTrigger(int hour, int minute, int daysMask, String zoneId, long after) {
+        ZoneRules rules = rulesFor(zoneId);
+        if (rules == null) {
+            return -1L;
+        }
+        int mask = daysMask == 0 ? AlarmRecurrence.EVERY_DAY : daysMask;
+
+        Instant afterInstant = Instant.ofEpochMilli(after);
+        LocalDate date = LocalDateTime.ofInstant(afterInstant, rules.getOffset(afterInstant)).toLocalDate();
+        // Today plus a full week covers every mask, including today's day later on
+        for (int i = 0; i < 8; i++, date = date.plusDays(1)) {
+            int day = date.getDayOfWeek().getValue() % 7; // ISO Monday = 1 .. Sunday = 7 -> 0
+            if ((mask & (1 << day)) == 0) {
+                continue;
+            }
+            long trigger = resolve(date.atTime(hour, minute), rules);
+            if (trigger > after) {
+                return trigger;
+            }
+        }
+        return -1L;
+    }
+
+    // Batch form for a whole set of schedules in one zone; entries that can't be resolved are -1
+    public static long[] nextTriggers(int[] hours, int[] minutes, int[] daysMasks, String zoneId, long after) {
+        long[] triggers = new long[hours.length];
+        for (int i = 0; i < hours.length; i++) {
+            triggers[i] = nextTrigger(hours[i], minutes[i], daysMasks[i], zoneId, after);
+        }
+        return triggers;
+    }
+
+    public static String defaultZoneId() {
+        return defaultZone.getId();
+    }
+
+    // Called when the device time zone changes
+    public static void onTimeZoneChanged() {
+        defaultZone = ZoneId.systemDefault();
+    }
+
+    private static ZoneRules rulesFor(String zoneId) {
+        String id = zoneId != null ? zoneId : defaultZone.getId();
+        ZoneRules rules = rulesCache.get(id);
+        if (rules == null) {
+            try {
+                rules = ZoneId.of(id).getRules();
+            } catch (Exception e) {
+                return null;
+            }
+            rulesCache.putIfAbsent(id, rules);
+        }
+        return rules;
+    }
+
+    private static long resolve(LocalDateTime local, ZoneRules rules) {
+        List<ZoneOffset> offsets = rules.getValidOffsets(local);
+        if (offsets.size() == 1) {
+            return local.toInstant(offsets.get(0)).toEpochMilli();
+        }
+        if (offsets.isEmpty()) {
+            // Gap: the wall-clock time doesn't exist, fire when it resumes
+            ZoneOffsetTransition gap = rules.getTransition(local);
+            return gap.getInstant().toEpochMilli();
+        }
+        // Overlap: the earlier offset is the first time the clock shows this time
+        return local.toInstant(offsets.get(0)).toEpochMilli();
+    }
+}
@@ -0,0 +1,17 @@
+package com.commutetimely;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+// New-architecture build: AlarmManager is served by the codegen-backed TurboModule.
+final class AlarmManagerModuleFactory {
+    // The class create() returns, reported in the package's module info
+    static final Class<? extends NativeModule> MODULE_CLASS = AlarmManagerTurboModule.class;
+
+    private AlarmManagerModuleFactory() {
+    }
+
+    static NativeModule create(ReactApplicationContext reactContext) {
+        return new AlarmManagerTurboModule(reactContext);
+    }
+}
@@ -0,0 +1,200 @@
+package com.commutetimely;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+// New-architecture AlarmManager, generated from src/specs/NativeAlarmManager.ts.
+// All work is delegated to the legacy module so both architectures share one
+// implementation; the sync reads are invoked directly over JSI.
+public class AlarmManagerTurboModule extends NativeAlarmManagerSpec {
+    private final AlarmManagerModule delegate;
+
+    public AlarmManagerTurboModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.delegate = new AlarmManagerModule(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected Map<String, Object> getTypedExportedConstants() {
+        return delegate.getConstants();
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        delegate.initialize();
+    }
+
+    @Override
+    public void invalidate() {
+        delegate.invalidate();
+        super.invalidate();
+    }
+
+    @Override
+    public void addListener(String eventName) {
+        delegate.addListener(eventName);
+    }
+
+    @Override
+    public void removeListeners(double count) {
+        delegate.removeListeners(count);
+    }
+
+    @Override
+    public void canScheduleExactAlarms(Promise promise) {
+        delegate.canScheduleExactAlarms(promise);
+    }
+
+    @Override
+    public void scheduleExactAlarm(String alarmId, double triggerTime, String title, String message, Promise promise) {
+        delegate.scheduleExactAlarm(alarmId, triggerTime, title, message, promise);
+    }
+
+    @Override
+    public void scheduleRecurringAlarm(
+        String alarmId,
+        ReadableArray daysOfWeek,
+        String time,
+        String title,
+        String message,
+        Promise promise
+    ) {
+        delegate.scheduleRecurringAlarm(alarmId, daysOfWeek, time, title, message, promise);
+    }
+
+    @Override
+    public void scheduleExactAlarms(ReadableArray alarms, Promise promise) {
+        delegate.scheduleExactAlarms(alarms, promise);
+    }
+
+    @Override
+    public void cancelAlarm(String alarmId, Promise promise) {
+        delegate.cancelAlarm(alarmId, promise);
+    }
+
+    @Override
+    public void cancelAlarms(ReadableArray alarmIds, Promise promise) {
+        delegate.cancelAlarms(alarmIds, promise);
+    }
+
+    @Override
+    public void reconcileAlarms(ReadableArray alarms, Promise promise) {
+        delegate.reconcileAlarms(alarms, promise);
+    }
+
+    @Override
+    public void ensureNotificationChannels(Promise promise) {
+        delegate.ensureNotificationChannels(promise);
+    }
+
+    @Override
+    public void setDepartureCountdownEnabled(boolean enabled, Promise promise) {
+        delegate.setDepartureCountdownEnabled(enabled, promise);
+    }
+
+    @Override
+    public void updateDepartureCountdown(String alarmId, Promise promise) {
+        delegate.updateDepartureCountdown(alarmId, promise);
+    }
+
+    @Override
+    public void setRefreshApiKeys(String mapboxToken, String weatherbitKey, Promise promise) {
+        delegate.setRefreshApiKeys(mapboxToken, weatherbitKey, promise);
+    }
+
+    @Override
+    public void setRefreshPlan(String alarmId, ReadableMap plan, Promise promise) {
+        delegate.setRefreshPlan(alarmId, plan, promise);
+    }
+
+    @Override
+    public void clearRefreshPlan(String alarmId, Promise promise) {
+        delegate.clearRefreshPlan(alarmId, promise);
+    }
+
+    @Override
+    public void setRouteGeometry(String alarmId, String geoJson, Promise promise) {
+        delegate.setRouteGeometry(alarmId, geoJson, promise);
+    }
+
+    @Override
+    public void getScheduledAlarms(Promise promise) {
+        delegate.getScheduledAlarms(promise);
+    }
+
+    @Override
+    public void getAlarm(String alarmId, Promise promise) {
+        delegate.getAlarm(alarmId, promise);
+    }
+
+    @Override
+    public void getExecutorStats(Promise promise) {
+        delegate.getExecutorStats(promise);
+    }
+
+    @Override
+    public double calculateWeatherDelay(String condition, double precipitationProbability, double windSpeed) {
+        return delegate.calculateWeatherDelay(condition, precipitationProbability, windSpeed);
+    }
+
+    @Override
+    public double computeLeaveByTime(double arrivalTime, double etaSeconds, double weatherDelaySeconds, double bufferMinutes) {
+        return delegate.computeLeaveByTime(arrivalTime, etaSeconds, weatherDelaySeconds, bufferMinutes);
+    }
+
+    @Override
+    public double calculateLeaveTime(
+        double arrivalHour,
+        double arrivalMinute,
+        double etaSeconds,
+        String condition,
+        double precipitationProbability,
+        double windSpeed
+    ) {
+        return delegate.calculateLeaveTime(
+            arrivalHour, arrivalMinute, etaSeconds, condition, precipitationProbability, windSpeed);
+    }
+
+    @Override
+    public void computeTriggerTimes(ReadableArray schedules, String zoneId, Promise promise) {
+        delegate.computeTriggerTimes(schedules, zoneId, promise);
+    }
+
+    @Override
+    public void getFireLatencyStats(Promise promise) {
+        delegate.getFireLatencyStats(promise);
+    }
+
+    @Override
+    public boolean canScheduleExactAlarmsSync() {
+        return delegate.canScheduleExactAlarmsSync();
+    }
+
+    @Override
+    public double getNextTriggerTime() {
+        return delegate.getNextTriggerTime();
+    }
+
+    @Override
+    public void getStartupReport(Promise promise) {
+        delegate.getStartupReport(promise);
+    }
+
+    @Override
+    public void dumpStartupReport(Promise promise) {
+        delegate.dumpStartupReport(promise);
+    }
+}
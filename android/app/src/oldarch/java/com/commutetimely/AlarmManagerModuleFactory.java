@@ -0,0 +1,17 @@
+package com.commutetimely;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+// Bridge build: codegen specs are not generated, so AlarmManager is the legacy module.
+final class AlarmManagerModuleFactory {
+    // The class create() returns, reported in the package's module info
+    static final Class<? extends NativeModule> MODULE_CLASS = AlarmManagerModule.class;
+
+    private AlarmManagerModuleFactory() {
+    }
+
+    static NativeModule create(ReactApplicationContext reactContext) {
+        return new AlarmManagerModule(reactContext);
+    }
+}
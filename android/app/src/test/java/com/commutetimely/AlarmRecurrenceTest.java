@@ -0,0 +1,81 @@
+package com.commutetimely;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public class AlarmRecurrenceTest {
+    private static final String UTC = "UTC";
+
+    private static long at(int day, int hour, int minute) {
+        // 2024-06-03 is a Monday
+        return LocalDateTime.of(2024, 6, day, hour, minute).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Test
+    public void onTimeFireRollsToNextDay() {
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.EVERY_DAY, 7, 45, UTC, at(3, 7, 45), at(3, 7, 45));
+        assertEquals(at(4, 7, 45), next);
+    }
+
+    @Test
+    public void refreshedEarlierDoesNotFireAgainAtRuleTime() {
+        // Refreshed to 07:38 while the rule says 07:45: the next one is tomorrow, not 07:45 today
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.EVERY_DAY, 7, 45, UTC, at(3, 7, 38), at(3, 7, 38));
+        assertEquals(at(4, 7, 45), next);
+    }
+
+    @Test
+    public void refreshedLaterRollsToNextDay() {
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.EVERY_DAY, 7, 45, UTC, at(3, 7, 52), at(3, 7, 52));
+        assertEquals(at(4, 7, 45), next);
+    }
+
+    @Test
+    public void refreshedEarlierAcrossMidnightKeepsItsDay() {
+        // 00:10 rule refreshed to 23:55 the evening before
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.EVERY_DAY, 0, 10, UTC, at(3, 23, 55), at(3, 23, 55));
+        assertEquals(at(5, 0, 10), next);
+    }
+
+    @Test
+    public void refreshedEarlierSkipsToNextWeekday() {
+        // Friday's 07:45 refreshed to 07:38; the weekend is skipped
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.WEEKDAYS, 7, 45, UTC, at(7, 7, 38), at(7, 7, 38));
+        assertEquals(at(10, 7, 45), next);
+    }
+
+    @Test
+    public void staleOccurrenceRollsForwardFromNow() {
+        long next = AlarmRecurrence.nextOccurrenceAfterFire(
+            AlarmRecurrence.EVERY_DAY, 7, 45, UTC, at(3, 7, 38), at(6, 12, 0));
+        assertEquals(at(7, 7, 45), next);
+    }
+
+    @Test
+    public void emptyMaskNeverRecurs() {
+        assertEquals(-1L, AlarmRecurrence.nextOccurrenceAfterFire(0, 7, 45, UTC, at(3, 7, 45), at(3, 7, 45)));
+    }
+
+    @Test
+    public void movedZoneResolvesToSameWallClockDay() {
+        // 07:45 EDT armed in New York, re-resolved after moving to Los Angeles
+        long resolved = AlarmRecurrence.currentOccurrence(
+            AlarmRecurrence.EVERY_DAY, 7, 45, "America/Los_Angeles", at(3, 11, 45));
+        assertEquals(at(3, 14, 45), resolved);
+    }
+
+    @Test
+    public void unchangedZoneKeepsOccurrence() {
+        assertEquals(at(3, 7, 45), AlarmRecurrence.currentOccurrence(
+            AlarmRecurrence.EVERY_DAY, 7, 45, UTC, at(3, 7, 45)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.commutetimely;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.TimeZone;
+
+public class LeaveTimeEngineTest {
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static long at(int month, int day, int hour, int minute) {
+        return LocalDateTime.of(2024, month, day, hour, minute).atZone(NEW_YORK).toInstant().toEpochMilli();
+    }
+
+    private static long nextArrivalInNewYork(int hour, int minute, long now) {
+        TimeZone previous = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone(NEW_YORK));
+        TriggerCalculator.onTimeZoneChanged();
+        try {
+            return LeaveTimeEngine.nextArrivalTime(hour, minute, now);
+        } finally {
+            TimeZone.setDefault(previous);
+            TriggerCalculator.onTimeZoneChanged();
+        }
+    }
+
+    @Test
+    public void arrivalLaterTodayStaysToday() {
+        assertEquals(at(6, 3, 9, 0), nextArrivalInNewYork(9, 0, at(6, 3, 7, 0)));
+    }
+
+    @Test
+    public void arrivalAtNowIsNow() {
+        assertEquals(at(6, 3, 9, 0), nextArrivalInNewYork(9, 0, at(6, 3, 9, 0)));
+    }
+
+    @Test
+    public void passedArrivalRollsToTomorrow() {
+        assertEquals(at(6, 4, 9, 0), nextArrivalInNewYork(9, 0, at(6, 3, 10, 0)));
+    }
+
+    @Test
+    public void arrivalInSpringForwardGapIsAtTheTransition() {
+        // 02:30 doesn't exist on 2024-03-10; clocks jump from 02:00 to 03:00 EDT
+        assertEquals(at(3, 10, 3, 0), nextArrivalInNewYork(2, 30, at(3, 10, 0, 0)));
+    }
+
+    @Test
+    public void arrivalAcrossSpringForwardKeepsWallClockTime() {
+        assertEquals(at(3, 10, 9, 0), nextArrivalInNewYork(9, 0, at(3, 9, 22, 0)));
+    }
+}
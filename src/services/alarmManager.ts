@@ -1,16 +1,105 @@
-import {NativeModules, Platform} from 'react-native';
+import {Platform} from 'react-native';
 import PushNotification from 'react-native-push-notification';
-import {canScheduleExactAlarms} from './permissions';
+import {getAlarmManager} from '../specs/NativeAlarmManager';
+import type {Spec} from '../specs/NativeAlarmManager';
+import {addExactAlarmGrantListener, canScheduleExactAlarms} from './permissions';
 import {Destination} from './database';
 import {CommuteResult, getWeatherIcon} from './commute';
+import {LatLng} from './directions';
+import {MAPBOX_ACCESS_TOKEN, WEATHERBIT_API_KEY} from '../config/keys';
 
-interface AlarmManagerModule {
-  scheduleExactAlarm: (alarmId: string, triggerTime: number, title: string, message: string) => Promise<boolean>;
-  cancelAlarm: (alarmId: string) => Promise<void>;
-  canScheduleExactAlarms: () => Promise<boolean>;
+// Days are numbered as Date.getDay(): 0 = Sunday
+export interface AlarmRecurrence {
+  daysOfWeek: number[];
+  time: string; // HH:MM
 }
 
-const {AlarmManager} = NativeModules as {AlarmManager?: AlarmManagerModule};
+export const EVERY_DAY = [0, 1, 2, 3, 4, 5, 6];
+export const WEEKDAYS = [1, 2, 3, 4, 5];
+
+interface NativeAlarmRequest {
+  id: string;
+  triggerTime: number;
+  title: string;
+  message: string;
+  recurrence?: AlarmRecurrence;
+}
+
+interface ReconcileResult {
+  inserted: number;
+  moved: number;
+  updated: number;
+  deleted: number;
+  unchanged: number;
+  systemCalls: number;
+  systemCallsSaved: number;
+}
+
+export interface AlarmExecutorStats {
+  queueDepth: number;
+  queueCapacity: number;
+  peakQueueDepth: number;
+  submitted: number;
+  completed: number;
+  rejected: number;
+  averageWaitMs: number;
+  maxWaitMs: number;
+}
+
+export interface FireLatencyStats {
+  count: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+  buckets: Array<{upperBoundMs: number | null; count: number}>;
+}
+
+export interface StartupReport {
+  versionCode: number;
+  // Milliseconds since process start, on the monotonic clock
+  phases: Array<{name: string; thread: string; startMs: number; durationMs: number}>;
+  marks: Record<string, number>;
+  lightStarts: number;
+  savedPerLightStartMs: number;
+}
+
+interface NativeRefreshPlan {
+  originLatitude: number;
+  originLongitude: number;
+  destinationLatitude: number;
+  destinationLongitude: number;
+  arrivalTime: string; // HH:MM
+  leadMinutes: number;
+}
+
+// How long before the planned departure the native refresh re-checks ETA and weather
+const DEFAULT_REFRESH_LEAD_MINUTES = 30;
+
+// Members the codegen spec can only declare with Object, typed with the shapes the
+// module actually takes and resolves
+interface NarrowedMethods {
+  scheduleExactAlarms(alarms: NativeAlarmRequest[]): Promise<Record<string, boolean>>;
+  cancelAlarms(alarmIds: string[]): Promise<Record<string, boolean>>;
+  reconcileAlarms(alarms: NativeAlarmRequest[]): Promise<ReconcileResult>;
+  setRefreshPlan(alarmId: string, plan: NativeRefreshPlan): Promise<boolean>;
+  getScheduledAlarms(): Promise<NativeAlarmRequest[]>;
+  getAlarm(alarmId: string): Promise<NativeAlarmRequest | null>;
+  computeTriggerTimes(schedules: AlarmRecurrence[], zoneId: string | null): Promise<number[]>;
+  getExecutorStats(): Promise<AlarmExecutorStats>;
+  getFireLatencyStats(): Promise<FireLatencyStats>;
+  getStartupReport(): Promise<StartupReport>;
+}
+
+// The Spec with those members swapped in; each must still satisfy the spec signature it replaces
+type NarrowSpec<K extends keyof Spec, T extends Pick<Spec, K>> = Omit<Spec, K> & T;
+type AlarmManagerModule = NarrowSpec<keyof NarrowedMethods, NarrowedMethods>;
+
+// TurboModule under the new architecture, bridge module otherwise. Looked up per call
+// rather than at import, since resolving it is what constructs the native module.
+function nativeAlarmManager(): AlarmManagerModule | null {
+  return getAlarmManager() as AlarmManagerModule | null;
+}
 
 export interface ScheduledAlarm {
   id: string;
@@ -19,55 +108,68 @@ export interface ScheduledAlarm {
   title: string;
   message: string;
   isActive: boolean;
+  recurrence?: AlarmRecurrence;
 }
 
 export class CommuteAlarmManager {
   private scheduledAlarms: Map<string, ScheduledAlarm> = new Map();
+  // Alarms that went to push notifications because exact alarms were not allowed
+  private fallbackAlarms: Map<string, ScheduledAlarm> = new Map();
+
+  constructor() {
+    addExactAlarmGrantListener(() => {
+      this.upgradeFallbackAlarms();
+    });
+  }
 
   async scheduleCommuteAlarm(
     destination: Destination,
     commuteResult: CommuteResult
   ): Promise<boolean> {
     try {
-      const alarmId = `commute_${destination.id}`;
-      const triggerTime = this.calculateTriggerTime(commuteResult.leaveTime);
-      
-      const weatherIcon = getWeatherIcon(commuteResult.weatherCondition);
-      const title = `Time to leave for ${destination.name}! 🚗`;
-      const message = `ETA: ${Math.round(commuteResult.duration / 60)} mins (${weatherIcon} ${commuteResult.weatherCondition})`;
+      const alarm = this.buildAlarm(destination, commuteResult);
+      const {id: alarmId, triggerTime, title, message} = alarm;
+
+      // Nothing to do if the same alarm is already armed
+      const existing = this.scheduledAlarms.get(alarmId);
+      if (
+        existing &&
+        existing.triggerTime === triggerTime &&
+        existing.title === title &&
+        existing.message === message
+      ) {
+        return true;
+      }
 
       // Cancel existing alarm for this destination
       await this.cancelAlarm(alarmId);
 
       let success = false;
 
-      if (Platform.OS === 'android' && AlarmManager) {
-        // Try to use native AlarmManager for exact alarms
+      const AlarmManager = nativeAlarmManager();
+      if (Platform.OS === 'android' && AlarmManager?.scheduleExactAlarms) {
+        // Same batch path as rescheduleAllAlarms, so the alarm keeps its daily recurrence
         const canUseExactAlarms = await canScheduleExactAlarms();
-        
+
         if (canUseExactAlarms) {
-          success = await AlarmManager.scheduleExactAlarm(alarmId, triggerTime, title, message);
+          const results = await AlarmManager.scheduleExactAlarms([this.toNativeAlarm(alarm)]);
+          success = results[alarmId] === true;
           console.log(`Exact alarm scheduled: ${success ? 'Success' : 'Failed'}`);
         } else {
           console.warn('Exact alarms not available, falling back to notification scheduling');
-          success = false;
         }
       }
 
       // Fallback to react-native-push-notification
       if (!success) {
         success = await this.scheduleWithPushNotification(alarmId, triggerTime, title, message);
+        if (success) {
+          this.fallbackAlarms.set(alarmId, alarm);
+        }
       }
 
       if (success) {
-        this.scheduledAlarms.set(alarmId, {
-          id: alarmId,
-          destinationId: destination.id,
-          triggerTime,
-          title,
-          message,
-          isActive: true,
-        });
+        this.scheduledAlarms.set(alarmId, alarm);
       }
 
       return success;
@@ -77,6 +179,28 @@ export class CommuteAlarmManager {
     }
   }
 
+  private toNativeAlarm({id, triggerTime, title, message, recurrence}: ScheduledAlarm): NativeAlarmRequest {
+    return {id, triggerTime, title, message, recurrence};
+  }
+
+  private buildAlarm(destination: Destination, commuteResult: CommuteResult): ScheduledAlarm {
+    const weatherIcon = getWeatherIcon(commuteResult.weatherCondition);
+    const id = `commute_${destination.id}`;
+    // Keeps the days of an alarm hydrated from native, so a recalculation only moves its time
+    const daysOfWeek = this.scheduledAlarms.get(id)?.recurrence?.daysOfWeek ?? EVERY_DAY;
+
+    return {
+      id,
+      destinationId: destination.id,
+      triggerTime: this.calculateTriggerTime(commuteResult.leaveTime),
+      title: `Time to leave for ${destination.name}! 🚗`,
+      message: `ETA: ${Math.round(commuteResult.duration / 60)} mins (${weatherIcon} ${commuteResult.weatherCondition})`,
+      isActive: true,
+      // Repeats natively at the same time until JS recalculates it
+      recurrence: {daysOfWeek, time: commuteResult.leaveTime},
+    };
+  }
+
   private async scheduleWithPushNotification(
     alarmId: string,
     triggerTime: number,
@@ -123,6 +247,7 @@ export class CommuteAlarmManager {
   async cancelAlarm(alarmId: string): Promise<void> {
     try {
       // Cancel native AlarmManager alarm
+      const AlarmManager = nativeAlarmManager();
       if (Platform.OS === 'android' && AlarmManager) {
         await AlarmManager.cancelAlarm(alarmId);
       }
@@ -132,6 +257,7 @@ export class CommuteAlarmManager {
 
       // Remove from our tracking
       this.scheduledAlarms.delete(alarmId);
+      this.fallbackAlarms.delete(alarmId);
 
       console.log(`Alarm cancelled: ${alarmId}`);
     } catch (error) {
@@ -139,9 +265,107 @@ export class CommuteAlarmManager {
     }
   }
 
+  // Moves fallback alarms onto native exact alarms once the permission is granted
+  private async upgradeFallbackAlarms(): Promise<void> {
+    const alarms = Array.from(this.fallbackAlarms.values()).filter(alarm => alarm.triggerTime > Date.now());
+    this.fallbackAlarms.clear();
+    const AlarmManager = nativeAlarmManager();
+    if (alarms.length === 0 || Platform.OS !== 'android' || !AlarmManager?.scheduleExactAlarms) {
+      return;
+    }
+
+    try {
+      const results = await AlarmManager.scheduleExactAlarms(alarms.map(alarm => this.toNativeAlarm(alarm)));
+      for (const alarm of alarms) {
+        if (results[alarm.id] === true) {
+          PushNotification.cancelLocalNotification(alarm.id);
+        } else {
+          this.fallbackAlarms.set(alarm.id, alarm);
+        }
+      }
+      console.log(`Upgraded ${alarms.length} fallback alarms to exact alarms`);
+    } catch (error) {
+      console.error('Failed to upgrade fallback alarms:', error);
+      alarms.forEach(alarm => this.fallbackAlarms.set(alarm.id, alarm));
+    }
+  }
+
   async cancelAllDestinationAlarms(destinationId: string): Promise<void> {
     const alarmId = `commute_${destinationId}`;
     await this.cancelAlarm(alarmId);
+    await nativeAlarmManager()?.clearRefreshPlan?.(alarmId);
+  }
+
+  // Ongoing notification counting down to departure, updated in place by the native refresh
+  async setDepartureCountdownEnabled(enabled: boolean): Promise<void> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.setDepartureCountdownEnabled) {
+      return;
+    }
+    await AlarmManager.setDepartureCountdownEnabled(enabled);
+  }
+
+  // Carries a recalculated departure into any countdown already showing for these alarms
+  private async updateDepartureCountdowns(alarms: ScheduledAlarm[]): Promise<void> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.updateDepartureCountdown) {
+      return;
+    }
+    for (const alarm of alarms) {
+      try {
+        await AlarmManager.updateDepartureCountdown(alarm.id);
+      } catch (error) {
+        console.error('Failed to update departure countdown:', error);
+      }
+    }
+  }
+
+  // Makes each destination's alarm two-stage: leadMinutes before it fires, native code
+  // re-fetches ETA and weather and moves the alarm, without waiting for JS to run again.
+  // Plans persist natively, so this only needs calling when origin or destinations change.
+  async enableNativeRefresh(
+    destinations: Destination[],
+    origin: LatLng,
+    leadMinutes: number = DEFAULT_REFRESH_LEAD_MINUTES
+  ): Promise<void> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.setRefreshPlan) {
+      return;
+    }
+
+    try {
+      await AlarmManager.setRefreshApiKeys(MAPBOX_ACCESS_TOKEN, WEATHERBIT_API_KEY);
+      for (const destination of destinations) {
+        await AlarmManager.setRefreshPlan(`commute_${destination.id}`, {
+          originLatitude: origin.latitude,
+          originLongitude: origin.longitude,
+          destinationLatitude: destination.latitude,
+          destinationLongitude: destination.longitude,
+          arrivalTime: destination.arrivalTime,
+          leadMinutes,
+        });
+      }
+    } catch (error) {
+      console.error('Failed to enable native alarm refresh:', error);
+    }
+  }
+
+  // Hands each route to native code, which renders its notification thumbnail ahead of time
+  async attachRouteThumbnails(commuteResults: Map<string, CommuteResult>): Promise<void> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.setRouteGeometry) {
+      return;
+    }
+
+    try {
+      for (const [destinationId, result] of commuteResults) {
+        if (result.routeGeometry) {
+          await AlarmManager.setRouteGeometry(`commute_${destinationId}`, result.routeGeometry);
+        }
+      }
+    } catch (error) {
+      console.error('Failed to attach route thumbnails:', error);
+    }
   }
 
   async cancelAllAlarms(): Promise<void> {
@@ -167,6 +391,122 @@ export class CommuteAlarmManager {
     return triggerDate.getTime();
   }
 
+  // Replaces the JS Date-based trigger times with ones computed natively in one call,
+  // which gets DST transition days right. Leaves the JS values if the call fails.
+  private async applyNativeTriggerTimes(alarms: ScheduledAlarm[]): Promise<void> {
+    const recurring = alarms.filter(alarm => alarm.recurrence);
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.computeTriggerTimes || recurring.length === 0) {
+      return;
+    }
+
+    try {
+      const triggerTimes = await AlarmManager.computeTriggerTimes(
+        recurring.map(alarm => alarm.recurrence!),
+        null
+      );
+      recurring.forEach((alarm, index) => {
+        if (triggerTimes[index] >= 0) {
+          alarm.triggerTime = triggerTimes[index];
+        }
+      });
+    } catch (error) {
+      console.error('Failed to compute native trigger times:', error);
+    }
+  }
+
+  // Restores the alarm map from the native registry, which outlives the JS process
+  async hydrateFromNative(): Promise<number> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.getScheduledAlarms) {
+      return 0;
+    }
+
+    try {
+      const alarms = await AlarmManager.getScheduledAlarms();
+      for (const alarm of alarms) {
+        this.scheduledAlarms.set(alarm.id, {
+          id: alarm.id,
+          destinationId: alarm.id.replace('commute_', ''),
+          triggerTime: alarm.triggerTime,
+          title: alarm.title,
+          message: alarm.message,
+          isActive: true,
+          recurrence: alarm.recurrence,
+        });
+      }
+
+      console.log(`Restored ${alarms.length} alarms from native registry`);
+      return alarms.length;
+    } catch (error) {
+      console.error('Failed to restore alarms from native registry:', error);
+      return 0;
+    }
+  }
+
+  async getNativeExecutorStats(): Promise<AlarmExecutorStats | null> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.getExecutorStats) {
+      return null;
+    }
+    return AlarmManager.getExecutorStats();
+  }
+
+  // How late native alarms actually fire; use it to tune buffer minutes
+  async getFireLatencyStats(): Promise<FireLatencyStats | null> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.getFireLatencyStats) {
+      return null;
+    }
+    return AlarmManager.getFireLatencyStats();
+  }
+
+  // Cold-start phase timings of the current process; dumpToLogcat also writes them as STARTUP lines
+  async getStartupReport(dumpToLogcat: boolean = false): Promise<StartupReport | null> {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.getStartupReport) {
+      return null;
+    }
+    if (dumpToLogcat) {
+      await AlarmManager.dumpStartupReport();
+    }
+    return AlarmManager.getStartupReport();
+  }
+
+  // Read synchronously, so it is safe to call during render
+  getNextNativeTriggerTime(): number | null {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.getNextTriggerTime) {
+      return null;
+    }
+    const triggerTime = AlarmManager.getNextTriggerTime();
+    return triggerTime >= 0 ? triggerTime : null;
+  }
+
+  // Same rules as CommuteCalculator, computed natively by the engine AlarmReceiver uses.
+  // Returns the leave time in epoch millis, or null when the native module is missing.
+  calculateNativeLeaveTime(params: {
+    arrivalTime: string; // HH:MM
+    etaSeconds: number;
+    condition: string;
+    precipitationProbability: number;
+    windSpeed?: number;
+  }): number | null {
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.calculateLeaveTime) {
+      return null;
+    }
+    const [hour, minute] = params.arrivalTime.split(':').map(Number);
+    return AlarmManager.calculateLeaveTime(
+      hour,
+      minute,
+      params.etaSeconds,
+      params.condition,
+      params.precipitationProbability,
+      params.windSpeed ?? 0,
+    );
+  }
+
   getScheduledAlarms(): ScheduledAlarm[] {
     return Array.from(this.scheduledAlarms.values());
   }
@@ -178,12 +518,87 @@ export class CommuteAlarmManager {
 
   async rescheduleAllAlarms(destinations: Destination[], commuteResults: Map<string, CommuteResult>): Promise<void> {
     console.log('Rescheduling all alarms...');
-    
+
+    const alarms: ScheduledAlarm[] = [];
     for (const destination of destinations) {
       const commuteResult = commuteResults.get(destination.id);
       if (commuteResult) {
-        await this.scheduleCommuteAlarm(destination, commuteResult);
+        alarms.push(this.buildAlarm(destination, commuteResult));
+      } else {
+        // Keep the last known alarm for destinations that failed to recalculate
+        const existing = this.getAlarmForDestination(destination.id);
+        if (existing) {
+          alarms.push(existing);
+        }
+      }
+    }
+
+    await this.applyNativeTriggerTimes(alarms);
+
+    const AlarmManager = nativeAlarmManager();
+    if (Platform.OS !== 'android' || !AlarmManager?.scheduleExactAlarms) {
+      for (const destination of destinations) {
+        const commuteResult = commuteResults.get(destination.id);
+        if (commuteResult) {
+          await this.scheduleCommuteAlarm(destination, commuteResult);
+        }
       }
+      return;
+    }
+
+    try {
+      const canUseExactAlarms = await canScheduleExactAlarms();
+      const nativeAlarms = alarms.map(alarm => this.toNativeAlarm(alarm));
+
+      if (canUseExactAlarms && AlarmManager.reconcileAlarms) {
+        // Only alarms whose trigger actually changed are touched natively
+        const result = await AlarmManager.reconcileAlarms(nativeAlarms);
+        alarms.forEach(alarm => {
+          PushNotification.cancelLocalNotification(alarm.id);
+          this.fallbackAlarms.delete(alarm.id);
+          this.scheduledAlarms.set(alarm.id, alarm);
+        });
+        console.log(
+          `Reconciled ${alarms.length} alarms: ${result.inserted} new, ${result.moved} moved, ` +
+            `${result.deleted} removed, ${result.systemCallsSaved} system calls saved`
+        );
+        if (result.moved > 0 || result.updated > 0) {
+          await this.updateDepartureCountdowns(alarms);
+        }
+        return;
+      }
+
+      // One bridge call for the whole set instead of cancel/check/schedule per alarm
+      const alarmIds = alarms.map(alarm => alarm.id);
+      await AlarmManager.cancelAlarms(alarmIds);
+      alarmIds.forEach(alarmId => {
+        PushNotification.cancelLocalNotification(alarmId);
+        this.fallbackAlarms.delete(alarmId);
+      });
+
+      const results: Record<string, boolean> = canUseExactAlarms
+        ? await AlarmManager.scheduleExactAlarms(nativeAlarms)
+        : {};
+
+      for (const alarm of alarms) {
+        let success = results[alarm.id] === true;
+        if (!success) {
+          success = await this.scheduleWithPushNotification(alarm.id, alarm.triggerTime, alarm.title, alarm.message);
+          if (success) {
+            this.fallbackAlarms.set(alarm.id, alarm);
+          }
+        }
+
+        if (success) {
+          this.scheduledAlarms.set(alarm.id, alarm);
+        } else {
+          this.scheduledAlarms.delete(alarm.id);
+        }
+      }
+
+      console.log(`Rescheduled ${alarms.length} alarms in one batch`);
+    } catch (error) {
+      console.error('Failed to reschedule alarms:', error);
     }
   }
 
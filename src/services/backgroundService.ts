@@ -17,6 +17,9 @@ export class BackgroundCommuteService {
     
     // Set up app state listener
     this.appStateSubscription = AppState.addEventListener('change', this.handleAppStateChange);
+
+    // Pick up alarms armed by a previous process instead of recomputing them
+    await commuteAlarmManager.hydrateFromNative();
     
     // Check if we need to run calculation
     await this.checkAndRunDailyCalculation();
@@ -95,10 +98,7 @@ export class BackgroundCommuteService {
           console.log(`Calculating commute for ${destination.name}...`);
           const result = await calculator.calculateCommute(destination);
           results.set(destination.id, result);
-          
-          // Schedule notification
-          await commuteAlarmManager.scheduleCommuteAlarm(destination, result);
-          console.log(`✅ Scheduled alarm for ${destination.name} at ${result.leaveTime}`);
+          console.log(`✅ Calculated leave time for ${destination.name}: ${result.leaveTime}`);
           
           // Small delay to avoid rate limiting
           await new Promise(resolve => setTimeout(resolve, 1000));
@@ -107,6 +107,13 @@ export class BackgroundCommuteService {
         }
       }
 
+      // Apply the whole set at once so unchanged alarms are left alone
+      await commuteAlarmManager.rescheduleAllAlarms(destinations, results);
+
+      // Let the alarms re-check traffic natively shortly before they fire
+      await commuteAlarmManager.enableNativeRefresh(destinations, origin);
+      await commuteAlarmManager.attachRouteThumbnails(results);
+
       console.log(`✅ Background calculation completed for ${results.size} destinations`);
       
       // Store completion status
@@ -1,5 +1,5 @@
 import {fetchDrivingEta, LatLng} from './directions';
-import {fetchWeatherByLatLng, WeatherCondition} from './weatherbit';
+import {fetchWeatherByLatLng, WeatherSummary} from './weatherbit';
 import {databaseService, Destination} from './database';
 
 export interface CommuteResult {
@@ -8,6 +8,7 @@ export interface CommuteResult {
   weatherCondition: string;
   weatherDelay: number; // seconds
   arrivalTime: string; // HH:MM format
+  routeGeometry?: string; // GeoJSON LineString
 }
 
 export interface WeatherDelayConfig {
@@ -67,6 +68,7 @@ export class CommuteCalculator {
         weatherCondition: weather.description,
         weatherDelay,
         arrivalTime: destination.arrivalTime,
+        routeGeometry: eta.routeGeometry,
       };
 
       // Save calculation to database
@@ -79,7 +81,7 @@ export class CommuteCalculator {
     }
   }
 
-  private calculateWeatherDelay(weather: WeatherCondition): number {
+  private calculateWeatherDelay(weather: WeatherSummary): number {
     const condition = weather.description.toLowerCase();
     let delayMinutes = 0;
 
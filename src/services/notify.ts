@@ -52,6 +52,12 @@ export function scheduleLocalNotificationSync(date: Date, message: string): void
 }
 
 export function ensureDefaultChannel(): void {
+  // On Android MainApplication.onCreate already created every channel, so there is nothing
+  // to do here and no reason to load the alarm module for it
+  if (Platform.OS === 'android') {
+    return;
+  }
+
   PushNotification.createChannel(
     {
       channelId: 'commute-reminder',
@@ -62,4 +68,3 @@ export function ensureDefaultChannel(): void {
     () => {},
   );
 }
-
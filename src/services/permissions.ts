@@ -1,5 +1,43 @@
-import {Platform, Linking, NativeModules} from 'react-native';
+import {Platform, Linking, NativeEventEmitter} from 'react-native';
 import {PERMISSIONS, request, check, RESULTS} from 'react-native-permissions';
+import {getAlarmManager} from '../specs/NativeAlarmManager';
+
+// Exact-alarm permission as last reported by the native module. Seeded from its
+// constants and kept current by its change event, so checks never hit the bridge.
+let exactAlarmsAllowed: boolean | null = null;
+let exactAlarmSubscription: {remove: () => void} | null = null;
+const exactAlarmGrantListeners = new Set<() => void>();
+
+// Runs the listener whenever exact alarms become allowed while the app is running
+export function addExactAlarmGrantListener(listener: () => void): () => void {
+  exactAlarmGrantListeners.add(listener);
+  return () => {
+    exactAlarmGrantListeners.delete(listener);
+  };
+}
+
+function watchExactAlarmPermission(): void {
+  if (exactAlarmSubscription) return;
+  const NativeAlarmManager = getAlarmManager();
+  if (!NativeAlarmManager) return;
+
+  const constants = NativeAlarmManager.getConstants?.();
+  if (typeof constants?.exactAlarmsAllowed === 'boolean') {
+    exactAlarmsAllowed = constants.exactAlarmsAllowed;
+  }
+
+  const emitter = new NativeEventEmitter(NativeAlarmManager as any);
+  exactAlarmSubscription = emitter.addListener(
+    constants?.EXACT_ALARM_PERMISSION_CHANGED ?? 'exactAlarmPermissionChanged',
+    (event: {granted: boolean}) => {
+      const wasAllowed = exactAlarmsAllowed;
+      exactAlarmsAllowed = event.granted;
+      if (event.granted && wasAllowed !== true) {
+        exactAlarmGrantListeners.forEach(listener => listener());
+      }
+    },
+  );
+}
 
 export async function ensureLocationPermission(): Promise<boolean> {
   const perm = Platform.select({
@@ -22,9 +60,17 @@ export async function canScheduleExactAlarms(): Promise<boolean> {
   try {
     // For Android 12+, check if exact alarms can be scheduled
     // This requires checking the AlarmManager.canScheduleExactAlarms() method
-    const {AlarmManager} = NativeModules;
-    if (AlarmManager && AlarmManager.canScheduleExactAlarms) {
-      return await AlarmManager.canScheduleExactAlarms();
+    watchExactAlarmPermission();
+    if (exactAlarmsAllowed !== null) {
+      return exactAlarmsAllowed;
+    }
+    const NativeAlarmManager = getAlarmManager();
+    if (NativeAlarmManager?.canScheduleExactAlarmsSync) {
+      // Synchronous read, no bridge round trip
+      return NativeAlarmManager.canScheduleExactAlarmsSync();
+    }
+    if (NativeAlarmManager?.canScheduleExactAlarms) {
+      return await NativeAlarmManager.canScheduleExactAlarms();
     }
     
     // Fallback: assume true and let the alarm scheduling handle the error
@@ -4,6 +4,7 @@ export type WeatherSummary = {
   temperatureC: number;
   precipitationProbability: number;
   description: string;
+  windSpeed: number; // m/s
 };
 
 export async function fetchWeatherByLatLng(lat: number, lon: number): Promise<WeatherSummary> {
@@ -18,6 +19,8 @@ export async function fetchWeatherByLatLng(lat: number, lon: number): Promise<We
     temperatureC: data?.temp ?? 0,
     precipitationProbability: data?.precip ?? 0,
     description: data?.weather?.description ?? 'Unknown',
+    // Same field the native refresh reads, so both apply the high-wind delay alike
+    windSpeed: data?.wind_spd ?? 0,
   };
 }
 
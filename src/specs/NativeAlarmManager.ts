@@ -0,0 +1,71 @@
+import type {TurboModule} from 'react-native';
+import {TurboModuleRegistry} from 'react-native';
+
+// Codegen spec for the native AlarmManager module. Under the new architecture this
+// is backed by AlarmManagerTurboModule; on the bridge it resolves to the legacy
+// AlarmManagerModule through NativeModules.
+export interface Spec extends TurboModule {
+  getConstants(): {
+    exactAlarmsAllowed: boolean;
+    EXACT_ALARM_PERMISSION_CHANGED: string;
+  };
+
+  canScheduleExactAlarms(): Promise<boolean>;
+  scheduleExactAlarm(alarmId: string, triggerTime: number, title: string, message: string): Promise<boolean>;
+  scheduleRecurringAlarm(
+    alarmId: string,
+    daysOfWeek: Array<number>,
+    time: string,
+    title: string,
+    message: string,
+  ): Promise<number>;
+  scheduleExactAlarms(alarms: Array<Object>): Promise<Object>;
+  cancelAlarm(alarmId: string): Promise<void>;
+  cancelAlarms(alarmIds: Array<string>): Promise<Object>;
+  reconcileAlarms(alarms: Array<Object>): Promise<Object>;
+  ensureNotificationChannels(): Promise<void>;
+  setDepartureCountdownEnabled(enabled: boolean): Promise<void>;
+  updateDepartureCountdown(alarmId: string): Promise<boolean>;
+  setRefreshApiKeys(mapboxToken: string, weatherbitKey: string): Promise<void>;
+  setRefreshPlan(alarmId: string, plan: Object): Promise<boolean>;
+  clearRefreshPlan(alarmId: string): Promise<void>;
+  setRouteGeometry(alarmId: string, geoJson: string): Promise<boolean>;
+  getScheduledAlarms(): Promise<Array<Object>>;
+  getAlarm(alarmId: string): Promise<Object | null>;
+  computeTriggerTimes(schedules: Array<Object>, zoneId: string | null): Promise<Array<number>>;
+  getExecutorStats(): Promise<Object>;
+  getFireLatencyStats(): Promise<Object>;
+  getStartupReport(): Promise<Object>;
+  dumpStartupReport(): Promise<void>;
+
+  // Synchronous reads, answered on the JS thread without a bridge hop
+  canScheduleExactAlarmsSync(): boolean;
+  getNextTriggerTime(): number;
+
+  // Leave-time math shared with AlarmReceiver (LeaveTimeEngine)
+  calculateWeatherDelay(condition: string, precipitationProbability: number, windSpeed: number): number;
+  computeLeaveByTime(arrivalTime: number, etaSeconds: number, weatherDelaySeconds: number, bufferMinutes: number): number;
+  calculateLeaveTime(
+    arrivalHour: number,
+    arrivalMinute: number,
+    etaSeconds: number,
+    condition: string,
+    precipitationProbability: number,
+    windSpeed: number,
+  ): number;
+
+  // NativeEventEmitter support for exactAlarmPermissionChanged
+  addListener(eventName: string): void;
+  removeListeners(count: number): void;
+}
+
+let alarmManager: Spec | null | undefined;
+
+// Looking the module up is what constructs it natively, so it happens on first use
+// instead of when this file is imported
+export function getAlarmManager(): Spec | null {
+  if (alarmManager === undefined) {
+    alarmManager = TurboModuleRegistry.get<Spec>('AlarmManager');
+  }
+  return alarmManager;
+}